@@ -40,12 +40,11 @@ package com.anyicomplex.bmfontx;
 import com.anyicomplex.bmfontx.unicodefont.Glyph;
 import com.anyicomplex.bmfontx.unicodefont.GlyphPage;
 import com.anyicomplex.bmfontx.unicodefont.UnicodeFont;
+import com.anyicomplex.bmfontx.unicodefont.effects.Effect;
+import com.anyicomplex.bmfontx.unicodefont.effects.MultiChannelDistanceFieldEffect;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntIntMap;
-import org.lwjgl.BufferUtils;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL12;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
@@ -56,7 +55,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.IntBuffer;
 import java.util.Comparator;
 import java.util.Iterator;
 
@@ -79,17 +77,58 @@ public class BMFontUtils {
 		getGlyph('\u0000');
 		unicodeFont.loadGlyphs();
 
-		PrintStream out = new PrintStream(new FileOutputStream(new File(outputDir, outputName + ".fnt")));
+		writeFont(new File(outputDir, outputName + ".fnt"), outputName);
+		// Readers that don't know the rotate flag of the .fnt can place the glyph images with the atlas instead.
+		if (unicodeFont.isRotateGlyphs()) writeAtlas(new File(outputDir, outputName + ".atlas"), outputName);
+
+		int width = unicodeFont.getChosenPageWidth();
+		int height = unicodeFont.getChosenPageHeight();
+		BufferedImage pageImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		int[] row = new int[width];
+
+		int pageIndex = 0;
+		for (Iterator<GlyphPage> pageIter = unicodeFont.getGlyphPages().iterator(); pageIter.hasNext();) {
+			GlyphPage page = pageIter.next();
+			String fileName;
+			if (pageIndex == 0 && !pageIter.hasNext())
+				fileName = outputName + ".png";
+			else
+				fileName = outputName + (pageIndex + 1) + ".png";
+
+			WritableRaster raster = pageImage.getRaster();
+			for (int y = 0; y < height; y++) {
+				page.getRGB(y, row);
+				raster.setDataElements(0, y, width, 1, row);
+			}
+			File imageOutputFile = new File(outputDir, fileName);
+			ImageIO.write(pageImage, "png", imageOutputFile);
+
+			pageIndex++;
+		}
+	}
+
+	private void writeFont (File fntFile, String outputName) throws IOException {
+		try (PrintStream out = new PrintStream(new FileOutputStream(fntFile))) {
+			writeFont(out, outputName);
+		}
+	}
+
+	private void writeFont (PrintStream out, String outputName) {
 		Font font = unicodeFont.getFont();
-		int pageWidth = unicodeFont.getGlyphPageWidth();
-		int pageHeight = unicodeFont.getGlyphPageHeight();
+		int pageWidth = unicodeFont.getChosenPageWidth();
+		int pageHeight = unicodeFont.getChosenPageHeight();
+		MultiChannelDistanceFieldEffect multiChannel = getMultiChannelEffect();
+		boolean packed = unicodeFont.isChannelPacked();
+		boolean rotate = unicodeFont.isRotateGlyphs();
 		out.println("info face=\"" + font.getFontName() + "\" size=" + font.getSize() + " bold=" + (font.isBold() ? 1 : 0)
 			+ " italic=" + (font.isItalic() ? 1 : 0) + " charset=\"\" unicode=0 stretchH=100 smooth=1 aa=1 padding="
 			+ unicodeFont.getPaddingTop() + "," + unicodeFont.getPaddingRight() + "," + unicodeFont.getPaddingBottom() + ","
 			+ unicodeFont.getPaddingLeft() + " spacing=" + unicodeFont.getPaddingAdvanceX() + ","
 			+ unicodeFont.getPaddingAdvanceY());
 		out.println("common lineHeight=" + unicodeFont.getLineHeight() + " base=" + unicodeFont.getAscent() + " scaleW=" + pageWidth
-			+ " scaleH=" + pageHeight + " pages=" + unicodeFont.getGlyphPages().size + " packed=0");
+			+ " scaleH=" + pageHeight + " pages=" + unicodeFont.getGlyphPages().size + " packed=" + (packed ? 1 : 0)
+			// Every channel holds glyph data, either a set of glyphs each or a multi-channel distance field that needs all of them.
+			+ (multiChannel != null || packed ? " alphaChnl=0 redChnl=0 greenChnl=0 blueChnl=0" : ""));
 
 		int pageIndex = 0, glyphCount = 0;
 		for (Iterator<GlyphPage> pageIter = unicodeFont.getGlyphPages().iterator(); pageIter.hasNext();) {
@@ -116,7 +155,8 @@ public class BMFontUtils {
 				}
 			});
 			for (Glyph glyph : page.getGlyphs()) {
-				writeGlyph(out, pageWidth, pageHeight, pageIndex, glyph);
+				writeGlyph(out, pageWidth, pageHeight, pageIndex, glyph, packed ? glyph.getChannel() : multiChannel != null ? 15 : 0,
+					rotate);
 			}
 			allGlyphs.addAll(page.getGlyphs());
 			pageIndex++;
@@ -166,38 +206,20 @@ public class BMFontUtils {
 				out.println("kerning first=" + pair.firstCodePoint + " second=" + pair.secondCodePoint + " amount=" + pair.offset);
 			}
 		}
-		out.close();
-
-		int width = unicodeFont.getGlyphPageWidth();
-		int height = unicodeFont.getGlyphPageHeight();
-		IntBuffer buffer = BufferUtils.createIntBuffer(width * height);
-		BufferedImage pageImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-		int[] row = new int[width];
-
-		pageIndex = 0;
-		for (Iterator<GlyphPage> pageIter = unicodeFont.getGlyphPages().iterator(); pageIter.hasNext();) {
-			GlyphPage page = pageIter.next();
-			String fileName;
-			if (pageIndex == 0 && !pageIter.hasNext())
-				fileName = outputName + ".png";
-			else
-				fileName = outputName + (pageIndex + 1) + ".png";
-
-			page.getTexture().bind();
-			buffer.clear();
-			GL11.glGetTexImage(GL11.GL_TEXTURE_2D, 0, GL12.GL_BGRA, GL11.GL_UNSIGNED_BYTE, buffer);
-			WritableRaster raster = pageImage.getRaster();
-			for (int y = 0; y < height; y++) {
-				buffer.get(row);
-				raster.setDataElements(0, y, width, 1, row);
-			}
-			File imageOutputFile = new File(outputDir, fileName);
-			ImageIO.write(pageImage, "png", imageOutputFile);
-
-			pageIndex++;
+		if (multiChannel != null) {
+			// Read by the msdf shaders in other tools, libGDX ignores unknown lines at the end of the file.
+			out.println("distanceField fieldType=msdf distanceRange=" + Math.round(multiChannel.getSpread() * 2));
 		}
 	}
 
+	/** @return The multi-channel distance field effect applied to the glyphs, or null. */
+	private MultiChannelDistanceFieldEffect getMultiChannelEffect () {
+		if (unicodeFont.getRenderType() == UnicodeFont.RenderType.FreeType) return null;
+		for (Effect effect : unicodeFont.getEffects())
+			if (effect instanceof MultiChannelDistanceFieldEffect) return (MultiChannelDistanceFieldEffect)effect;
+		return null;
+	}
+
 	/** @return May be null. */
 	private Glyph getGlyph (char c) {
 		char[] chars = {c};
@@ -207,17 +229,68 @@ public class BMFontUtils {
 		return unicodeFont.getGlyph(vector.getGlyphCode(0), c, bounds, vector, 0);
 	}
 
-	void writeGlyph (PrintStream out, int pageWidth, int pageHeight, int pageIndex, Glyph glyph) {
+	/** @param rotate If true, the glyph's line ends with a rotate flag, 1 if its image is stored turned 90° counterclockwise. Its
+	 *           width and height are those of the upright glyph, so its image takes up height by width pixels on the page. The
+	 *           flag comes after every BMFont field, where libGDX and other readers ignore it. */
+	void writeGlyph (PrintStream out, int pageWidth, int pageHeight, int pageIndex, Glyph glyph, int channel, boolean rotate) {
+		// A trimmed glyph is stored without its transparent borders, the offsets move it back in place.
 		out.println("char id=" + String.format("%-7s ", glyph.getCodePoint()) //
 			+ "x=" + String.format("%-5s", (int)(glyph.getU() * pageWidth)) //
 			+ "y=" + String.format("%-5s", (int)(glyph.getV() * pageHeight)) //
-			+ "width=" + String.format("%-5s", glyph.getWidth()) //
-			+ "height=" + String.format("%-5s", glyph.getHeight()) //
-			+ "xoffset=" + String.format("%-5s", glyph.getXOffset()) //
-			+ "yoffset=" + String.format("%-5s", glyph.getYOffset()) //
+			+ "width=" + String.format("%-5s", glyph.getTrimmedWidth()) //
+			+ "height=" + String.format("%-5s", glyph.getTrimmedHeight()) //
+			+ "xoffset=" + String.format("%-5s", glyph.getXOffset() + glyph.getTrimX()) //
+			+ "yoffset=" + String.format("%-5s", glyph.getYOffset() + glyph.getTrimY()) //
 			+ "xadvance=" + String.format("%-5s", glyph.getXAdvance()) //
 			+ "page=" + String.format("%-5s", pageIndex) //
-			+ "chnl=0 ");
+			+ "chnl=" + channel + " " //
+			+ (rotate ? "rotate=" + (glyph.isRotated() ? 1 : 0) + " " : ""));
+	}
+
+	/** Writes a libGDX texture atlas with a region for every glyph that has pixels, named after the font and indexed by code
+	 * point, the char id of the glyph in the .fnt. The regions' original size and offset undo the trimming. Saved next to the
+	 * .fnt when glyphs may be rotated, since an atlas region records rotation in a way libGDX reads.
+	 * <p>
+	 * Every region has the same name, outputName, and only its index tells which glyph it is. Readers get the regions with
+	 * {@code TextureAtlas#findRegions(outputName)} and match each region's {@code index} to a char id, since
+	 * {@code findRegion(outputName)} returns only one of them. */
+	private void writeAtlas (File atlasFile, String outputName) throws IOException {
+		try (PrintStream out = new PrintStream(new FileOutputStream(atlasFile))) {
+			writeAtlas(out, outputName);
+		}
+	}
+
+	private void writeAtlas (PrintStream out, String outputName) {
+		int pageWidth = unicodeFont.getChosenPageWidth();
+		int pageHeight = unicodeFont.getChosenPageHeight();
+		int pageIndex = 0;
+		for (Iterator<GlyphPage> pageIter = unicodeFont.getGlyphPages().iterator(); pageIter.hasNext();) {
+			GlyphPage page = pageIter.next();
+			out.println();
+			if (pageIndex == 0 && !pageIter.hasNext())
+				out.println(outputName + ".png");
+			else
+				out.println(outputName + (pageIndex + 1) + ".png");
+			out.println("size: " + pageWidth + "," + pageHeight);
+			out.println("format: RGBA8888");
+			out.println("filter: Linear,Linear");
+			out.println("repeat: none");
+			for (Glyph glyph : page.getGlyphs()) {
+				int width = glyph.getTrimmedWidth(), height = glyph.getTrimmedHeight();
+				if (width == 0 || height == 0 || glyph.getPage() == null) continue;
+				int origWidth = glyph.isTrimmed() ? glyph.getWidth() : width;
+				int origHeight = glyph.isTrimmed() ? glyph.getHeight() : height;
+				out.println(outputName);
+				out.println("  rotate: " + glyph.isRotated());
+				out.println("  xy: " + (int)(glyph.getU() * pageWidth) + ", " + (int)(glyph.getV() * pageHeight));
+				out.println("  size: " + width + ", " + height);
+				out.println("  orig: " + origWidth + ", " + origHeight);
+				// Atlas offsets are measured from the bottom left.
+				out.println("  offset: " + glyph.getTrimX() + ", " + (origHeight - glyph.getTrimY() - height));
+				out.println("  index: " + glyph.getCodePoint());
+			}
+			pageIndex++;
+		}
 	}
 
 	private int getGlyphCode (Font font, int codePoint) {
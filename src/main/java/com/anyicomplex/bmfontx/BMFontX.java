@@ -41,8 +41,10 @@ import com.anyicomplex.bmfontx.unicodefont.GlyphPage;
 import com.anyicomplex.bmfontx.unicodefont.UnicodeFont;
 import com.anyicomplex.bmfontx.unicodefont.effects.*;
 import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.badlogic.gdx.backends.lwjgl.LwjglCanvas;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
 import com.badlogic.gdx.backends.lwjgl.LwjglPreferences;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
@@ -118,6 +120,15 @@ public class BMFontX extends JFrame {
 	JLabel glyphPagesTotalLabel;
 	JComboBox<Integer> glyphPageHeightCombo;
 	JComboBox<Integer> glyphPageWidthCombo;
+	JComboBox<UnicodeFont.PackingStrategy> glyphPackingCombo;
+	JComboBox<UnicodeFont.PageSizing> glyphPageSizingCombo;
+	JSpinner glyphAutoPageCountSpinner;
+	JCheckBox glyphOptimizePackingCheckBox;
+	JCheckBox glyphTrimCheckBox;
+	JCheckBox glyphPackChannelsCheckBox;
+	JCheckBox glyphRotateCheckBox;
+	JSpinner glyphGutterSpinner;
+	JComboBox<UnicodeFont.GutterFill> glyphGutterFillCombo;
 	JComboBox<String> glyphPageCombo;
 	JPanel glyphCachePanel;
 	JRadioButton glyphCacheRadio;
@@ -203,6 +214,7 @@ public class BMFontX extends JFrame {
 		effectsListModel.addElement(new OutlineZigzagEffect());
 		effectsListModel.addElement(new ShadowEffect());
 		effectsListModel.addElement(new DistanceFieldEffect());
+		effectsListModel.addElement(new MultiChannelDistanceFieldEffect());
 		new EffectPanel(colorEffect);
 
 		parseArgs(args);
@@ -236,31 +248,20 @@ public class BMFontX extends JFrame {
 	}
 
 	private void parseArgs (String[] args) {
-		float scale = 1f;
-
-		for (int i = 0; i < args.length; i++) {
-			final String param = args[i];
-			final boolean more = i < args.length - 1;
-
-			if (param.equals("-b") || param.equals("--batch")) {
-				batchMode = true;
-			} else if (more && (param.equals("-s") || param.equals("--scale"))) {
-				scale = Float.parseFloat(args[++i]);
-			} else if (more && (param.equals("-i") || param.equals("--input"))) {
-				File f = new File(args[++i]);
-				open(f);
-				fontFileRadio.setText("");
-				updateFont();
-			} else if (more && (param.equals("-o") || param.equals("--output"))) {
-				File f = new File(args[++i]);
-				saveBMFont(f);
-			} else {
-				System.err.println("Unknown parameter: " + param);
-				exit(3);
-			}
+		Arguments arguments = Arguments.parse(args);
+		if (arguments == null) {
+			exit(3);
+			return;
+		}
+		batchMode = arguments.batch;
+		if (arguments.input != null) {
+			open(arguments.input);
+			fontFileRadio.setText("");
+			updateFont();
 		}
+		if (arguments.output != null) saveBMFont(arguments.output);
 
-		fontSizeSpinner.setValue((int)(0.5f + Math.max(4, scale * ((Integer)fontSizeSpinner.getValue()))));
+		fontSizeSpinner.setValue(scaleFontSize((Integer)fontSizeSpinner.getValue(), arguments.scale));
 	}
 
 	void updateFontSelector () {
@@ -272,7 +273,6 @@ public class BMFontX extends JFrame {
 
 	void updateFont () {
 		clearEffectButton.setEnabled(!effectPanels.isEmpty());
-		int fontSize = (Integer) fontSizeSpinner.getValue();
 
 		File file = null;
 		if (fontFileRadio.isSelected()) {
@@ -281,7 +281,6 @@ public class BMFontX extends JFrame {
 		}
 
 		boolean isFreeType = freeTypeRadio.isSelected();
-		boolean isNative = nativeRadio.isSelected();
 		boolean isJava = javaRadio.isSelected();
 		addEffectButton.setVisible(isJava);
 		clearEffectButton.setVisible(isJava);
@@ -294,49 +293,16 @@ public class BMFontX extends JFrame {
 		unicodePanel.setVisible(!isFreeType);
 		updateFontSelector();
 
-		UnicodeFont unicodeFont = null;
-		if (file != null) {
-			// Load from file.
-			try {
-				unicodeFont = new UnicodeFont(fontFileText.getText(), fontSize, !isFreeType && boldCheckBox.isSelected(),
-						!isFreeType && italicCheckBox.isSelected());
-			} catch (Throwable ex) {
-				ex.printStackTrace();
-				fontFileRadio.setSelected(false);
-			}
-		}
-
-		if (unicodeFont == null) {
-			// Load from java.awt.Font (kerning not available!).
-			unicodeFont = new UnicodeFont(Font.decode(fontList.getSelectedValue()), fontSize, !isFreeType && boldCheckBox.isSelected(),
-					!isFreeType && italicCheckBox.isSelected());
-		}
-
-		unicodeFont.setMono(monoCheckBox.isSelected());
-		unicodeFont.setGamma(((Number)gammaSpinner.getValue()).floatValue());
-		unicodeFont.setPaddingTop(((Number)padTopSpinner.getValue()).intValue());
-		unicodeFont.setPaddingRight(((Number)padRightSpinner.getValue()).intValue());
-		unicodeFont.setPaddingBottom(((Number)padBottomSpinner.getValue()).intValue());
-		unicodeFont.setPaddingLeft(((Number)padLeftSpinner.getValue()).intValue());
-		unicodeFont.setPaddingAdvanceX(((Number)padAdvanceXSpinner.getValue()).intValue());
-		unicodeFont.setPaddingAdvanceY(((Number)padAdvanceYSpinner.getValue()).intValue());
-		unicodeFont.setGlyphPageWidth(((Number) Objects.requireNonNull(glyphPageWidthCombo.getSelectedItem())).intValue());
-		unicodeFont.setGlyphPageHeight(((Number) Objects.requireNonNull(glyphPageHeightCombo.getSelectedItem())).intValue());
-		if (nativeRadio.isSelected())
-			unicodeFont.setRenderType(UnicodeFont.RenderType.Native);
-		else if (freeTypeRadio.isSelected()) {
-			try {
-				unicodeFont.setRenderType(UnicodeFont.RenderType.FreeType);
-			} catch (GdxRuntimeException ex) {
-				unicodeFont.setRenderType(UnicodeFont.RenderType.Java);
-				javaRadio.doClick();
-			}
-		} else
-			unicodeFont.setRenderType(UnicodeFont.RenderType.Java);
-
-		for (EffectPanel panel : effectPanels) {
-			unicodeFont.getEffects().add(panel.getEffect());
+		Settings settings = getSettings();
+		if (isFreeType) {
+			// FreeType renders the font file as it is.
+			settings.setBold(false);
+			settings.setItalic(false);
 		}
+		UnicodeFont unicodeFont = createFont(settings);
+		// The font file couldn't be loaded.
+		if (file != null && !settings.getFont2File().equals(unicodeFont.getFontFile())) fontFileRadio.setSelected(false);
+		if (isFreeType && unicodeFont.getRenderType() != UnicodeFont.RenderType.FreeType) javaRadio.doClick();
 
 		int size = sampleTextPane.getFont().getSize();
 		if (size < 14) size = 14;
@@ -353,6 +319,11 @@ public class BMFontX extends JFrame {
 	}
 
 	void saveSettings (File file) throws IOException {
+		getSettings().save(file);
+	}
+
+	/** Returns the settings shown in the window. */
+	Settings getSettings () {
 		Settings settings = new Settings();
 		settings.setFontName(fontList.getSelectedValue());
 		settings.setFontSize((Integer) fontSizeSpinner.getValue());
@@ -370,6 +341,15 @@ public class BMFontX extends JFrame {
 		settings.setPaddingAdvanceY(((Number)padAdvanceYSpinner.getValue()).intValue());
 		settings.setGlyphPageWidth(((Number) Objects.requireNonNull(glyphPageWidthCombo.getSelectedItem())).intValue());
 		settings.setGlyphPageHeight(((Number) Objects.requireNonNull(glyphPageHeightCombo.getSelectedItem())).intValue());
+		settings.setPackingStrategy((UnicodeFont.PackingStrategy) Objects.requireNonNull(glyphPackingCombo.getSelectedItem()));
+		settings.setPageSizing((UnicodeFont.PageSizing) Objects.requireNonNull(glyphPageSizingCombo.getSelectedItem()));
+		settings.setAutoPageCount(((Number)glyphAutoPageCountSpinner.getValue()).intValue());
+		settings.setOptimizePacking(glyphOptimizePackingCheckBox.isSelected());
+		settings.setTrimGlyphs(glyphTrimCheckBox.isSelected());
+		settings.setPackChannels(glyphPackChannelsCheckBox.isSelected());
+		settings.setRotateGlyphs(glyphRotateCheckBox.isSelected());
+		settings.setGutter(((Number)glyphGutterSpinner.getValue()).intValue());
+		settings.setGutterFill((UnicodeFont.GutterFill) Objects.requireNonNull(glyphGutterFillCombo.getSelectedItem()));
 		settings.setGlyphText(sampleTextPane.getText());
 		if (nativeRadio.isSelected())
 			settings.setRenderType(UnicodeFont.RenderType.Native.ordinal());
@@ -380,7 +360,7 @@ public class BMFontX extends JFrame {
 		for (EffectPanel panel : effectPanels) {
 			settings.getEffects().add(panel.getEffect());
 		}
-		settings.save(file);
+		return settings;
 	}
 
 	void open (File file) {
@@ -403,6 +383,15 @@ public class BMFontX extends JFrame {
 		padAdvanceYSpinner.setValue(settings.getPaddingAdvanceY());
 		glyphPageWidthCombo.setSelectedItem(settings.getGlyphPageWidth());
 		glyphPageHeightCombo.setSelectedItem(settings.getGlyphPageHeight());
+		glyphPackingCombo.setSelectedItem(settings.getPackingStrategy());
+		glyphPageSizingCombo.setSelectedItem(settings.getPageSizing());
+		glyphAutoPageCountSpinner.setValue(settings.getAutoPageCount());
+		glyphOptimizePackingCheckBox.setSelected(settings.isOptimizePacking());
+		glyphTrimCheckBox.setSelected(settings.isTrimGlyphs());
+		glyphPackChannelsCheckBox.setSelected(settings.isPackChannels());
+		glyphRotateCheckBox.setSelected(settings.isRotateGlyphs());
+		glyphGutterSpinner.setValue(settings.getGutter());
+		glyphGutterFillCombo.setSelectedItem(settings.getGutterFill());
 		if (settings.getRenderType() == UnicodeFont.RenderType.Native.ordinal())
 			nativeRadio.setSelected(true);
 		else if (settings.getRenderType() == UnicodeFont.RenderType.FreeType.ordinal())
@@ -489,10 +478,19 @@ public class BMFontX extends JFrame {
 		listener.addSpinners(new JSpinner[] {padTopSpinner, padRightSpinner, padBottomSpinner, padLeftSpinner, padAdvanceXSpinner,
 			padAdvanceYSpinner});
 		fontSizeSpinner.addChangeListener(listener);
+		glyphAutoPageCountSpinner.addChangeListener(listener);
+		glyphGutterSpinner.addChangeListener(listener);
 		gammaSpinner.addChangeListener(listener);
 
 		glyphPageWidthCombo.addActionListener(listener);
 		glyphPageHeightCombo.addActionListener(listener);
+		glyphPackingCombo.addActionListener(listener);
+		glyphPageSizingCombo.addActionListener(listener);
+		glyphOptimizePackingCheckBox.addActionListener(listener);
+		glyphTrimCheckBox.addActionListener(listener);
+		glyphPackChannelsCheckBox.addActionListener(listener);
+		glyphRotateCheckBox.addActionListener(listener);
+		glyphGutterFillCombo.addActionListener(listener);
 		boldCheckBox.addActionListener(listener);
 		italicCheckBox.addActionListener(listener);
 		monoCheckBox.addActionListener(listener);
@@ -992,9 +990,83 @@ public class BMFontX extends JFrame {
 						GridBagConstraints.NONE, new Insets(0, 0, 5, 5), 0, 0));
 					glyphPageHeightCombo.setSelectedIndex(4);
 				}
+				{
+					glyphCachePanel.add(new JLabel("Packing:"), new GridBagConstraints(0, 5, 1, 1, 0.0, 0.0,
+						GridBagConstraints.EAST, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphPackingCombo = new JComboBox<>(new DefaultComboBoxModel<>(UnicodeFont.PackingStrategy.values()));
+					glyphCachePanel.add(glyphPackingCombo, new GridBagConstraints(1, 5, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+						GridBagConstraints.NONE, new Insets(0, 0, 5, 5), 0, 0));
+				}
+				{
+					glyphCachePanel.add(new JLabel("Sizing:"), new GridBagConstraints(0, 6, 1, 1, 0.0, 0.0,
+						GridBagConstraints.EAST, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphPageSizingCombo = new JComboBox<>(new DefaultComboBoxModel<>(UnicodeFont.PageSizing.values()));
+					glyphPageSizingCombo.setToolTipText("Auto picks the smallest size, up to the page width and height, that fits the glyphs in the number of pages below.");
+					glyphCachePanel.add(glyphPageSizingCombo, new GridBagConstraints(1, 6, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+						GridBagConstraints.NONE, new Insets(0, 0, 5, 5), 0, 0));
+				}
+				{
+					glyphCachePanel.add(new JLabel("Auto pages:"), new GridBagConstraints(0, 7, 1, 1, 0.0, 0.0,
+						GridBagConstraints.EAST, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphAutoPageCountSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 99, 1));
+					glyphCachePanel.add(glyphAutoPageCountSpinner, new GridBagConstraints(1, 7, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+						GridBagConstraints.NONE, new Insets(0, 0, 5, 5), 0, 0));
+				}
+				{
+					glyphOptimizePackingCheckBox = new JCheckBox("Optimize packing");
+					glyphOptimizePackingCheckBox.setToolTipText("Tries every glyph order with every packing and keeps the one that needs the fewest pages.");
+					glyphCachePanel.add(glyphOptimizePackingCheckBox, new GridBagConstraints(0, 8, 2, 1, 0.0, 0.0,
+						GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphTrimCheckBox = new JCheckBox("Trim glyphs");
+					glyphTrimCheckBox.setToolTipText("Stores only the visible pixels of each glyph, without transparent borders.");
+					glyphCachePanel.add(glyphTrimCheckBox, new GridBagConstraints(0, 9, 2, 1, 0.0, 0.0,
+						GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphPackChannelsCheckBox = new JCheckBox("Pack channels");
+					glyphPackChannelsCheckBox.setToolTipText("Stores a separate set of white glyphs in each of the RGBA channels.");
+					glyphCachePanel.add(glyphPackChannelsCheckBox, new GridBagConstraints(0, 10, 2, 1, 0.0, 0.0,
+						GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphRotateCheckBox = new JCheckBox("Rotate glyphs");
+					glyphRotateCheckBox.setToolTipText("<html>Lets glyphs be stored turned 90° when they fit better that way.<br>"
+						+ "Each glyph in the .fnt gets a rotate flag, and a libGDX atlas of the glyph images is saved next to it.<br>"
+						+ "<b>Readers that ignore both draw turned glyphs sideways.</b></html>");
+					glyphCachePanel.add(glyphRotateCheckBox, new GridBagConstraints(0, 11, 2, 1, 0.0, 0.0,
+						GridBagConstraints.CENTER, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphCachePanel.add(new JLabel("Gutter:"), new GridBagConstraints(0, 12, 1, 1, 0.0, 0.0,
+						GridBagConstraints.EAST, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphGutterSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 16, 1));
+					glyphGutterSpinner.setToolTipText("Pixels reserved around every glyph, not part of the glyph, so filtering doesn't bleed.");
+					glyphCachePanel.add(glyphGutterSpinner, new GridBagConstraints(1, 12, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+						GridBagConstraints.NONE, new Insets(0, 0, 5, 5), 0, 0));
+				}
+				{
+					glyphCachePanel.add(new JLabel("Gutter fill:"), new GridBagConstraints(0, 13, 1, 1, 0.0, 0.0,
+						GridBagConstraints.EAST, GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
+				}
+				{
+					glyphGutterFillCombo = new JComboBox<>(new DefaultComboBoxModel<>(UnicodeFont.GutterFill.values()));
+					glyphGutterFillCombo.setSelectedItem(UnicodeFont.GutterFill.Extrude);
+					glyphCachePanel.add(glyphGutterFillCombo, new GridBagConstraints(1, 13, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+						GridBagConstraints.NONE, new Insets(0, 0, 5, 5), 0, 0));
+				}
 				{
 					resetCacheButton = new JButton("Reset Cache");
-					glyphCachePanel.add(resetCacheButton, new GridBagConstraints(0, 6, 2, 1, 1.0, 0.0, GridBagConstraints.CENTER,
+					glyphCachePanel.add(resetCacheButton, new GridBagConstraints(0, 14, 2, 1, 1.0, 0.0, GridBagConstraints.CENTER,
 						GridBagConstraints.NONE, new Insets(0, 5, 5, 5), 0, 0));
 				}
 				{
@@ -1531,8 +1603,7 @@ public class BMFontX extends JFrame {
 
 			if (saveBMFontFile != null) {
 				try {
-					BMFontUtils bmFont = new BMFontUtils(unicodeFont);
-					bmFont.save(saveBMFontFile);
+					new BMFontUtils(unicodeFont).save(saveBMFontFile);
 
 					if (batchMode) {
 						exit(0);
@@ -1605,7 +1676,100 @@ public class BMFontX extends JFrame {
 		EXTENDED_CHARS = buffer.toString();
 	}
 
+	/** Creates the font described by the settings, with their effects. This is how both the window and the batch mode set up the
+	 * font. The font file is used if it is active and can be loaded, else the system font. A font that can't be rendered with
+	 * FreeType is rendered with Java instead. */
+	static UnicodeFont createFont (Settings settings) {
+		UnicodeFont unicodeFont = null;
+		if (settings.isFont2Active() && new File(settings.getFont2File()).isFile()) {
+			try {
+				unicodeFont = new UnicodeFont(settings.getFont2File(), settings);
+			} catch (Throwable ex) {
+				ex.printStackTrace();
+			}
+		}
+		// Load from java.awt.Font (kerning not available!).
+		if (unicodeFont == null) unicodeFont = new UnicodeFont(Font.decode(settings.getFontName()), settings);
+
+		unicodeFont.setMono(settings.isMono());
+		unicodeFont.setGamma(settings.getGamma());
+		if (settings.getRenderType() == UnicodeFont.RenderType.Native.ordinal())
+			unicodeFont.setRenderType(UnicodeFont.RenderType.Native);
+		else if (settings.getRenderType() == UnicodeFont.RenderType.FreeType.ordinal()) {
+			try {
+				unicodeFont.setRenderType(UnicodeFont.RenderType.FreeType);
+			} catch (GdxRuntimeException ex) {
+				unicodeFont.setRenderType(UnicodeFont.RenderType.Java);
+			}
+		} else
+			unicodeFont.setRenderType(UnicodeFont.RenderType.Java);
+		return unicodeFont;
+	}
+
+	/** Returns the font size scaled by the {@code --scale} argument. */
+	static int scaleFontSize (int fontSize, float scale) {
+		return (int)(0.5f + Math.max(4, scale * fontSize));
+	}
+
+	/** Saves the BMFont described by the settings without creating the window or an OpenGL context. Glyphs rendered with FreeType
+	 * are loaded through OpenGL textures, so those have to be saved by the window's batch mode.
+	 * @return false if the files couldn't be saved. */
+	static private boolean saveHeadless (Settings settings, float scale, File output) {
+		settings.setFontSize(scaleFontSize(settings.getFontSize(), scale));
+		UnicodeFont unicodeFont = createFont(settings);
+		String glyphText = settings.getGlyphText();
+		unicodeFont.addGlyphs(glyphText.length() > 0 ? glyphText : NEHE_CHARS);
+
+		try {
+			new BMFontUtils(unicodeFont).save(output);
+			return true;
+		} catch (Throwable ex) {
+			System.out.println("Error saving BMFont files: " + output.getAbsolutePath());
+			ex.printStackTrace();
+			return false;
+		}
+	}
+
+	/** The command line arguments. */
+	static private class Arguments {
+		boolean batch;
+		float scale = 1f;
+		File input, output;
+
+		/** @return null if an argument is unknown, after telling so. */
+		static Arguments parse (String[] args) {
+			Arguments arguments = new Arguments();
+			for (int i = 0; i < args.length; i++) {
+				final String param = args[i];
+				final boolean more = i < args.length - 1;
+
+				if (param.equals("-b") || param.equals("--batch")) {
+					arguments.batch = true;
+				} else if (more && (param.equals("-s") || param.equals("--scale"))) {
+					arguments.scale = Float.parseFloat(args[++i]);
+				} else if (more && (param.equals("-i") || param.equals("--input"))) {
+					arguments.input = new File(args[++i]);
+				} else if (more && (param.equals("-o") || param.equals("--output"))) {
+					arguments.output = new File(args[++i]);
+				} else {
+					System.err.println("Unknown parameter: " + param);
+					return null;
+				}
+			}
+			return arguments;
+		}
+	}
+
 	public static void main (String[] args) {
+		Arguments arguments = Arguments.parse(args);
+		if (arguments == null) System.exit(3);
+		if (arguments.batch && arguments.input != null && arguments.output != null) {
+			// Settings and kerning are read through Gdx.files.
+			Gdx.files = new LwjglFiles();
+			Settings settings = new Settings(arguments.input.getAbsolutePath());
+			if (settings.getRenderType() != UnicodeFont.RenderType.FreeType.ordinal())
+				System.exit(saveHeadless(settings, arguments.scale, arguments.output) ? 0 : 1);
+		}
 		SingleInstanceLock.exitIfOtherInstancesRunning(BMFontX.class.getCanonicalName());
 		SwingUtilities.invokeLater(new Runnable() {
 			public void run () {
@@ -58,6 +58,16 @@ public class Settings {
 	private float gamma;
 	private int paddingTop, paddingLeft, paddingBottom, paddingRight, paddingAdvanceX, paddingAdvanceY;
 	private int glyphPageWidth = 512, glyphPageHeight = 512;
+	private UnicodeFont.PackingStrategy packingStrategy = UnicodeFont.PackingStrategy.Shelf;
+	private UnicodeFont.PageSizing pageSizing = UnicodeFont.PageSizing.Fixed;
+	private int autoPageCount = 1;
+	private UnicodeFont.GlyphOrder glyphOrder = UnicodeFont.GlyphOrder.Height;
+	private boolean optimizePacking;
+	private boolean trimGlyphs;
+	private boolean packChannels;
+	private boolean rotateGlyphs;
+	private int gutter;
+	private UnicodeFont.GutterFill gutterFill = UnicodeFont.GutterFill.Extrude;
 	private String glyphText = "";
 	private final Array<Effect> effects = new Array<>();
 	private boolean nativeRendering;
@@ -112,6 +122,26 @@ public class Settings {
 					glyphPageWidth = Integer.parseInt(value);
 				} else if (name.equals("glyph.page.height")) {
 					glyphPageHeight = Integer.parseInt(value);
+				} else if (name.equals("glyph.page.packing")) {
+					packingStrategy = UnicodeFont.PackingStrategy.valueOf(value);
+				} else if (name.equals("glyph.page.sizing")) {
+					pageSizing = UnicodeFont.PageSizing.valueOf(value);
+				} else if (name.equals("glyph.page.sizing.pages")) {
+					autoPageCount = Integer.parseInt(value);
+				} else if (name.equals("glyph.page.order")) {
+					glyphOrder = UnicodeFont.GlyphOrder.valueOf(value);
+				} else if (name.equals("glyph.page.packing.optimize")) {
+					optimizePacking = Boolean.parseBoolean(value);
+				} else if (name.equals("glyph.trim")) {
+					trimGlyphs = Boolean.parseBoolean(value);
+				} else if (name.equals("glyph.page.packed")) {
+					packChannels = Boolean.parseBoolean(value);
+				} else if (name.equals("glyph.rotate")) {
+					rotateGlyphs = Boolean.parseBoolean(value);
+				} else if (name.equals("glyph.gutter")) {
+					gutter = Integer.parseInt(value);
+				} else if (name.equals("glyph.gutter.fill")) {
+					gutterFill = UnicodeFont.GutterFill.valueOf(value);
 				} else if (name.equals("glyph.native.rendering")) {
 					nativeRendering = Boolean.parseBoolean(value);
 				} else if (name.equals("glyph.text")) {
@@ -224,6 +254,106 @@ public class Settings {
 		this.glyphPageHeight = glyphPageHeight;
 	}
 
+	/** @see UnicodeFont#getPackingStrategy() */
+	public UnicodeFont.PackingStrategy getPackingStrategy () {
+		return packingStrategy;
+	}
+
+	/** @see UnicodeFont#setPackingStrategy(UnicodeFont.PackingStrategy) */
+	public void setPackingStrategy (UnicodeFont.PackingStrategy packingStrategy) {
+		this.packingStrategy = packingStrategy;
+	}
+
+	/** @see UnicodeFont#getPageSizing() */
+	public UnicodeFont.PageSizing getPageSizing () {
+		return pageSizing;
+	}
+
+	/** @see UnicodeFont#setPageSizing(UnicodeFont.PageSizing) */
+	public void setPageSizing (UnicodeFont.PageSizing pageSizing) {
+		this.pageSizing = pageSizing;
+	}
+
+	/** @see UnicodeFont#getAutoPageCount() */
+	public int getAutoPageCount () {
+		return autoPageCount;
+	}
+
+	/** @see UnicodeFont#setAutoPageCount(int) */
+	public void setAutoPageCount (int autoPageCount) {
+		this.autoPageCount = autoPageCount;
+	}
+
+	/** @see UnicodeFont#getGlyphOrder() */
+	public UnicodeFont.GlyphOrder getGlyphOrder () {
+		return glyphOrder;
+	}
+
+	/** @see UnicodeFont#setGlyphOrder(UnicodeFont.GlyphOrder) */
+	public void setGlyphOrder (UnicodeFont.GlyphOrder glyphOrder) {
+		this.glyphOrder = glyphOrder;
+	}
+
+	/** @see UnicodeFont#isOptimizePacking() */
+	public boolean isOptimizePacking () {
+		return optimizePacking;
+	}
+
+	/** @see UnicodeFont#setOptimizePacking(boolean) */
+	public void setOptimizePacking (boolean optimizePacking) {
+		this.optimizePacking = optimizePacking;
+	}
+
+	/** @see UnicodeFont#isTrimGlyphs() */
+	public boolean isTrimGlyphs () {
+		return trimGlyphs;
+	}
+
+	/** @see UnicodeFont#setTrimGlyphs(boolean) */
+	public void setTrimGlyphs (boolean trimGlyphs) {
+		this.trimGlyphs = trimGlyphs;
+	}
+
+	/** @see UnicodeFont#isPackChannels() */
+	public boolean isPackChannels () {
+		return packChannels;
+	}
+
+	/** @see UnicodeFont#setPackChannels(boolean) */
+	public void setPackChannels (boolean packChannels) {
+		this.packChannels = packChannels;
+	}
+
+	/** @see UnicodeFont#isRotateGlyphs() */
+	public boolean isRotateGlyphs () {
+		return rotateGlyphs;
+	}
+
+	/** @see UnicodeFont#setRotateGlyphs(boolean) */
+	public void setRotateGlyphs (boolean rotateGlyphs) {
+		this.rotateGlyphs = rotateGlyphs;
+	}
+
+	/** @see UnicodeFont#getGutter() */
+	public int getGutter () {
+		return gutter;
+	}
+
+	/** @see UnicodeFont#setGutter(int) */
+	public void setGutter (int gutter) {
+		this.gutter = gutter;
+	}
+
+	/** @see UnicodeFont#getGutterFill() */
+	public UnicodeFont.GutterFill getGutterFill () {
+		return gutterFill;
+	}
+
+	/** @see UnicodeFont#setGutterFill(UnicodeFont.GutterFill) */
+	public void setGutterFill (UnicodeFont.GutterFill gutterFill) {
+		this.gutterFill = gutterFill;
+	}
+
 	/** @see UnicodeFont#UnicodeFont(String, int, boolean, boolean)
 	 * @see UnicodeFont#UnicodeFont(java.awt.Font, int, boolean, boolean) */
 	public String getFontName () {
@@ -349,6 +479,16 @@ public class Settings {
 		out.println("glyph.native.rendering=" + nativeRendering);
 		out.println("glyph.page.width=" + glyphPageWidth);
 		out.println("glyph.page.height=" + glyphPageHeight);
+		out.println("glyph.page.packing=" + packingStrategy.name());
+		out.println("glyph.page.sizing=" + pageSizing.name());
+		out.println("glyph.page.sizing.pages=" + autoPageCount);
+		out.println("glyph.page.order=" + glyphOrder.name());
+		out.println("glyph.page.packing.optimize=" + optimizePacking);
+		out.println("glyph.trim=" + trimGlyphs);
+		out.println("glyph.page.packed=" + packChannels);
+		out.println("glyph.rotate=" + rotateGlyphs);
+		out.println("glyph.gutter=" + gutter);
+		out.println("glyph.gutter.fill=" + gutterFill.name());
 		out.println("glyph.text=" + glyphText);
 		out.println();
 		out.println(RENDER_TYPE + "=" + renderType);
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Splits a range of independent rows (or columns) into bands and processes them on a {@link ForkJoinPool}. Every index is
+ * handled exactly once and by the same code as in the serial case, so the result does not depend on the parallelism.
+ * @author Yi An */
+final class Bands {
+	/** Bands smaller than this are not worth the overhead of a task. */
+	static private final int MIN_BAND_SIZE = 16;
+	static private final Map<Integer, ForkJoinPool> pools = new HashMap<>();
+
+	/** Processes the indices {@code [start, end)} of a band. */
+	interface Body {
+		void run (int start, int end);
+	}
+
+	private Bands () {
+	}
+
+	/** Runs {@code body} over {@code [0, count)}, using up to {@code parallelism} threads. Returns when all bands are done. */
+	static void run (int parallelism, int count, Body body) {
+		if (parallelism <= 1 || count < MIN_BAND_SIZE * 2) {
+			body.run(0, count);
+			return;
+		}
+		// A few bands per thread so that uneven rows still balance out.
+		int bandSize = Math.max(MIN_BAND_SIZE, count / (parallelism * 4));
+		getPool(parallelism).invoke(new BandTask(body, 0, count, bandSize));
+	}
+
+	/** Returns a shared pool with the given parallelism, so that generators created per glyph don't each start new threads. */
+	static private synchronized ForkJoinPool getPool (int parallelism) {
+		ForkJoinPool pool = pools.get(parallelism);
+		if (pool == null) {
+			pool = new ForkJoinPool(parallelism);
+			pools.put(parallelism, pool);
+		}
+		return pool;
+	}
+
+	static private class BandTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Body body;
+		private final int start, end, bandSize;
+
+		BandTask (Body body, int start, int end, int bandSize) {
+			this.body = body;
+			this.start = start;
+			this.end = end;
+			this.bandSize = bandSize;
+		}
+
+		protected void compute () {
+			if (end - start <= bandSize) {
+				body.run(start, end);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new BandTask(body, start, middle, bandSize), new BandTask(body, middle, end, bandSize));
+		}
+	}
+}
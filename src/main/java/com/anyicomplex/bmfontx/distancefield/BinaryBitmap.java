@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+import java.util.Arrays;
+
+/** A binary image packed 64 pixels to a {@code long}, one bit per pixel. Rows start on a word boundary, and the pixel at {@code x}
+ * is bit {@code x & 63} of word {@code x >> 6} of its row.
+ * @author Yi An */
+final class BinaryBitmap {
+	int width, height;
+	int wordsPerRow;
+	long[] bits;
+
+	BinaryBitmap (int width, int height) {
+		reset(width, height);
+	}
+
+	/** Resizes the bitmap and marks every pixel as "outside". The bits are only reallocated if they don't fit. */
+	void reset (int width, int height) {
+		this.width = width;
+		this.height = height;
+		wordsPerRow = (width + 63) >> 6;
+		int size = wordsPerRow * height;
+		if (bits == null || bits.length < size)
+			bits = new long[size];
+		else
+			Arrays.fill(bits, 0, size, 0);
+	}
+
+	/** Returns {@code true} if the pixel is "inside". */
+	boolean get (int x, int y) {
+		return (bits[y * wordsPerRow + (x >> 6)] & (1L << x)) != 0;
+	}
+
+	/** Marks the pixel as "inside". Not safe to call for pixels sharing a word from different threads. */
+	void set (int x, int y) {
+		bits[y * wordsPerRow + (x >> 6)] |= 1L << x;
+	}
+}
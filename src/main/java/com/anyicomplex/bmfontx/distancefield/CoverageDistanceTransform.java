@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+import java.util.Arrays;
+
+/** Anti-aliased Euclidean distance transform of a coverage image, after Gustavson &amp; Strand "Anti-Aliased Euclidean Distance
+ * Transform" (edtaa3).
+ *
+ * <p>
+ * A binary image only tells on which side of an edge a pixel lies, so its distances are off by up to half a pixel and have to
+ * be computed at a much higher resolution to look smooth. Here every pixel with a coverage between 0 and 1 is an edge pixel, and
+ * the position of the edge within it is estimated from its coverage and the local gradient. Distances are then propagated from
+ * those edge pixels with vector dead reckoning, re-evaluating the sub-pixel distance to the edge pixel at every step. The
+ * result is accurate to a small fraction of a pixel at the resolution of the coverage image itself.
+ * @author Yi An */
+final class CoverageDistanceTransform {
+	static private final double SQRT2 = Math.sqrt(2);
+	/** Distance of pixels that no edge has been propagated to yet. */
+	static private final double FAR = 1e6;
+	static private final double EPSILON = 1e-3;
+
+	private int width, height;
+	private double[] gradientX, gradientY;
+	private double[] distance;
+	private int[] distanceX, distanceY;
+	private double[] inverse;
+
+	CoverageDistanceTransform (int width, int height) {
+		reset(width, height);
+	}
+
+	/** Prepares the transform for another image size. The scratch arrays are only reallocated if they don't fit. */
+	void reset (int width, int height) {
+		this.width = width;
+		this.height = height;
+		int size = width * height;
+		if (distance == null || distance.length < size) {
+			gradientX = new double[size];
+			gradientY = new double[size];
+			distance = new double[size];
+			distanceX = new int[size];
+			distanceY = new int[size];
+			inverse = new double[size];
+		}
+	}
+
+	/** Computes the signed distance from the center of every pixel to the edge, positive inside.
+	 * @param coverage how much of every pixel is covered by the shape, from 0 to 1, row by row
+	 * @param out receives {@code width * height} signed distances in pixels */
+	void signedDistances (double[] coverage, float[] out) {
+		computeGradient(coverage);
+		transform(coverage);
+		for (int i = 0, n = width * height; i < n; i++) {
+			inverse[i] = 1 - coverage[i];
+			out[i] = (float)-Math.max(0, distance[i]);
+		}
+		// The gradient of the inverse image only differs in sign, which the edge estimate ignores.
+		transform(inverse);
+		for (int i = 0, n = width * height; i < n; i++)
+			out[i] += (float)Math.max(0, distance[i]);
+	}
+
+	/** Estimates the direction of the edge through every edge pixel with a Sobel-like filter. Border pixels get no gradient, the
+	 * edge is then assumed to be axis aligned. */
+	private void computeGradient (double[] image) {
+		int w = width;
+		Arrays.fill(gradientX, 0, w * height, 0);
+		Arrays.fill(gradientY, 0, w * height, 0);
+		for (int y = 1; y < height - 1; y++) {
+			for (int x = 1, k = y * w + 1; x < w - 1; x++, k++) {
+				if (image[k] <= 0 || image[k] >= 1) continue;
+				double gx = -image[k - w - 1] - SQRT2 * image[k - 1] - image[k + w - 1] + image[k - w + 1] + SQRT2 * image[k + 1]
+					+ image[k + w + 1];
+				double gy = -image[k - w - 1] - SQRT2 * image[k - w] - image[k - w + 1] + image[k + w - 1] + SQRT2 * image[k + w]
+					+ image[k + w + 1];
+				double length = gx * gx + gy * gy;
+				if (length > 0) {
+					length = Math.sqrt(length);
+					gx /= length;
+					gy /= length;
+				}
+				gradientX[k] = gx;
+				gradientY[k] = gy;
+			}
+		}
+	}
+
+	/** Returns the distance from the center of a pixel with the given coverage to the edge through it, for an edge with the given
+	 * normal. Negative if the center is covered. */
+	static private double edgeDistance (double gx, double gy, double a) {
+		if (gx == 0 || gy == 0) return 0.5 - a; // Axis aligned or unknown gradient.
+		double length = Math.sqrt(gx * gx + gy * gy);
+		gx = Math.abs(gx / length);
+		gy = Math.abs(gy / length);
+		if (gx < gy) {
+			double swap = gx;
+			gx = gy;
+			gy = swap;
+		}
+		double a1 = 0.5 * gy / gx;
+		if (a < a1) return 0.5 * (gx + gy) - Math.sqrt(2 * gx * gy * a); // The edge cuts off a corner of the pixel.
+		if (a < 1 - a1) return (0.5 - a) * gx; // The edge crosses two opposite sides of the pixel.
+		return -0.5 * (gx + gy) + Math.sqrt(2 * gx * gy * (1 - a));
+	}
+
+	/** Returns the distance from a pixel to the edge through the edge pixel at the given offset from it.
+	 * @param image the coverage image
+	 * @param edge the index of the edge pixel
+	 * @param dx the x offset from the edge pixel to the pixel
+	 * @param dy the y offset from the edge pixel to the pixel */
+	private double distanceTo (double[] image, int edge, int dx, int dy) {
+		double a = Math.min(1, Math.max(0, image[edge]));
+		if (a == 0) return FAR; // Not an edge pixel, nothing propagated here yet.
+		if (dx == 0 && dy == 0) return edgeDistance(gradientX[edge], gradientY[edge], a);
+		// Far from the edge pixel, the direction to it is a better estimate of the edge normal than the local gradient.
+		return Math.sqrt(dx * dx + dy * dy) + edgeDistance(dx, dy, a);
+	}
+
+	/** Tries to improve the distance of pixel {@code i} through the neighbor {@code c}, which is {@code (stepX, stepY)} away.
+	 * @return true if the distance improved */
+	private boolean propagate (double[] image, int i, int c, int stepX, int stepY) {
+		int dx = distanceX[c] + stepX, dy = distanceY[c] + stepY;
+		double newDistance = distanceTo(image, c - distanceX[c] - distanceY[c] * width, dx, dy);
+		if (newDistance >= distance[i] - EPSILON) return false;
+		distanceX[i] = dx;
+		distanceY[i] = dy;
+		distance[i] = newDistance;
+		return true;
+	}
+
+	/** Computes the distance from every pixel to the covered part of the image into {@link #distance}. Covered pixels get 0 and
+	 * edge pixels the sub-pixel estimate, the rest is filled in by sweeping the image forwards and backwards until nothing
+	 * changes. */
+	private void transform (double[] image) {
+		int w = width, h = height;
+		for (int i = 0, n = w * h; i < n; i++) {
+			distanceX[i] = distanceY[i] = 0;
+			if (image[i] <= 0)
+				distance[i] = FAR;
+			else if (image[i] < 1)
+				distance[i] = edgeDistance(gradientX[i], gradientY[i], image[i]);
+			else
+				distance[i] = 0;
+		}
+
+		boolean changed;
+		do {
+			changed = false;
+			// Top to bottom, propagating from above and from the left, then from the right.
+			for (int y = 1; y < h; y++) {
+				int i = y * w;
+				for (int x = 0; x < w; x++, i++) {
+					if (distance[i] <= 0) continue;
+					if (x > 0) {
+						changed |= propagate(image, i, i - 1, 1, 0);
+						changed |= propagate(image, i, i - w - 1, 1, 1);
+					}
+					changed |= propagate(image, i, i - w, 0, 1);
+					if (x < w - 1) changed |= propagate(image, i, i - w + 1, -1, 1);
+				}
+				i = y * w + w - 2;
+				for (int x = w - 2; x >= 0; x--, i--) {
+					if (distance[i] <= 0) continue;
+					changed |= propagate(image, i, i + 1, -1, 0);
+				}
+			}
+			// Bottom to top, propagating from below and from the right, then from the left.
+			for (int y = h - 2; y >= 0; y--) {
+				int i = y * w + w - 1;
+				for (int x = w - 1; x >= 0; x--, i--) {
+					if (distance[i] <= 0) continue;
+					if (x < w - 1) {
+						changed |= propagate(image, i, i + 1, -1, 0);
+						changed |= propagate(image, i, i + w + 1, -1, -1);
+					}
+					changed |= propagate(image, i, i + w, 0, -1);
+					if (x > 0) changed |= propagate(image, i, i + w - 1, 1, -1);
+				}
+				i = y * w + 1;
+				for (int x = 1; x < w; x++, i++) {
+					if (distance[i] <= 0) continue;
+					changed |= propagate(image, i, i - 1, 1, 0);
+				}
+			}
+		} while (changed);
+	}
+}
@@ -39,10 +39,20 @@ package com.anyicomplex.bmfontx.distancefield;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.image.BufferedImage;
+import java.awt.image.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.*;
 
 /** Generates a signed distance field image from a binary (black/white) source image.
  * 
@@ -55,12 +65,25 @@ import java.util.Objects;
  * Effects" by Chris Green: <a href="http://www.valvesoftware.com/publications/2007/SIGGRAPH2007_AlphaTestedMagnification.pdf">
  * http://www.valvesoftware.com/publications/2007/SIGGRAPH2007_AlphaTestedMagnification.pdf </a>
  * 
+ * <p>
+ * A generator keeps its scratch buffers from one image to the next, so generating many distance fields of similar size
+ * allocates little. For the same reason a generator must not be used by more than one thread at a time.
+ * 
  * @author Thomas ten Cate */
 public class DistanceFieldGenerator {
 
 	private Color color = Color.white;
 	private int downscale = 1;
 	private float spread = 1;
+	private Engine engine = Engine.Separable;
+	private int parallelism = 1;
+
+	private BinaryBitmap bitmap;
+	private DistanceTransform transform;
+	private CoverageDistanceTransform coverageTransform;
+	private int[] squareDists;
+	private float[] signedDistances;
+	private double[] coverage;
 
 	/** @see #setColor(Color) */
 	public Color getColor () {
@@ -106,6 +129,34 @@ public class DistanceFieldGenerator {
 		this.spread = spread;
 	}
 
+	/** @see #setEngine(Engine) */
+	public Engine getEngine () {
+		return engine;
+	}
+
+	/** Sets the algorithm used to find the nearest edge. The binary engines return exactly the same distances, they only differ
+	 * in speed. Defaults to {@link Engine#Separable}. */
+	public void setEngine (Engine engine) {
+		if (engine == null) throw new IllegalArgumentException("engine cannot be null.");
+		this.engine = engine;
+	}
+
+	/** @see #setParallelism(int) */
+	public int getParallelism () {
+		return parallelism;
+	}
+
+	/** Sets the number of threads used to generate a distance field. The output is split into bands of rows that are processed
+	 * on a shared {@link java.util.concurrent.ForkJoinPool}; the result is identical to the serial one. Small images are always
+	 * processed on the calling thread. Defaults to 1.
+	 * 
+	 * @param parallelism a positive integer
+	 * @throws IllegalArgumentException if parallelism is not positive */
+	public void setParallelism (int parallelism) {
+		if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
 	/** Caclulate the squared distance between two points
 	 * 
 	 * @param x1 The x coordinate of the first point
@@ -121,7 +172,8 @@ public class DistanceFieldGenerator {
 
 	/** Process the image into a distance field.
 	 * 
-	 * The input image should be binary (black/white), but if not, see {@link #isInside(int)}.
+	 * The input image should be binary (black/white), but if not, see {@link #isInside(int)}. The {@link Engine#Coverage} engine
+	 * instead expects an anti-aliased image, see {@link #coverage(int)}.
 	 * 
 	 * The returned image is a factor of {@code upscale} smaller than {@code inImage}. Opaque pixels more than {@link #spread} away
 	 * in the output image from white remain opaque; transparent pixels more than {@link #spread} away in the output image from
@@ -131,32 +183,363 @@ public class DistanceFieldGenerator {
 	 * @param inImage the image to process.
 	 * @return the distance field image */
 	public BufferedImage generateDistanceField (BufferedImage inImage) {
-		final int inWidth = inImage.getWidth();
-		final int inHeight = inImage.getHeight();
+		final BufferedImage outImage = new BufferedImage(inImage.getWidth() / downscale, inImage.getHeight() / downscale,
+			BufferedImage.TYPE_4BYTE_ABGR);
+		generateDistanceField(inImage, inImage.getWidth(), inImage.getHeight(), outImage);
+		return outImage;
+	}
+
+	/** Process part of an image into a distance field, writing it into an existing image. This allows both images to be reused
+	 * for glyphs of different sizes.
+	 * 
+	 * @param inImage the image to process, only its top left {@code inWidth * inHeight} pixels are read
+	 * @param inWidth the width of the part to process
+	 * @param inHeight the height of the part to process
+	 * @param outImage a {@code TYPE_4BYTE_ABGR} image of at least {@code inWidth / downscale * inHeight / downscale} pixels, the
+	 *           distance field is written to its top left corner
+	 * @throws IllegalArgumentException if either image is too small or the output image has the wrong type */
+	public void generateDistanceField (BufferedImage inImage, int inWidth, int inHeight, BufferedImage outImage) {
+		checkOutImage(outImage, inWidth / downscale, inHeight / downscale);
+		writePixels(computeSignedDistances(inImage, inWidth, inHeight), outImage, inWidth / downscale, inHeight / downscale);
+	}
+
+	/** Computes the signed distance of every output pixel of part of an image, without turning them into an image. The distances
+	 * can be kept and turned into distance fields of any spread up to the current one, or any color, with
+	 * {@link #writeDistanceField(float[], int, int, BufferedImage)}.
+	 * 
+	 * @param inImage the image to process, only its top left {@code inWidth * inHeight} pixels are read
+	 * @param inWidth the width of the part to process
+	 * @param inHeight the height of the part to process
+	 * @return the signed distance of every output pixel in input pixels, positive inside, clamped to the spread
+	 * @throws IllegalArgumentException if the image is too small */
+	public float[] generateSignedDistances (BufferedImage inImage, int inWidth, int inHeight) {
+		float[] signedDistances = computeSignedDistances(inImage, inWidth, inHeight);
+		return Arrays.copyOf(signedDistances, (inWidth / downscale) * (inHeight / downscale));
+	}
+
+	/** Writes signed distances, as returned by {@link #generateSignedDistances}, into the top left corner of an image as a
+	 * distance field with the current spread and color. Distances beyond the spread are clamped.
+	 * 
+	 * @param signedDistances the signed distance of every output pixel, row by row
+	 * @param width the width of the distance field
+	 * @param height the height of the distance field
+	 * @param outImage a {@code TYPE_4BYTE_ABGR} image of at least {@code width * height} pixels
+	 * @throws IllegalArgumentException if the output image is too small or has the wrong type */
+	public void writeDistanceField (float[] signedDistances, int width, int height, BufferedImage outImage) {
+		checkOutImage(outImage, width, height);
+		writePixels(signedDistances, outImage, width, height);
+	}
+
+	/** Computes the signed distances of part of an image into the scratch array.
+	 * @return the scratch array, holding {@code inWidth / downscale * inHeight / downscale} signed distances */
+	private float[] computeSignedDistances (BufferedImage inImage, int inWidth, int inHeight) {
 		final int outWidth = inWidth / downscale;
 		final int outHeight = inHeight / downscale;
-		final BufferedImage outImage = new BufferedImage(outWidth, outHeight, BufferedImage.TYPE_4BYTE_ABGR);
+		if (inWidth > inImage.getWidth() || inHeight > inImage.getHeight())
+			throw new IllegalArgumentException("inImage is smaller than " + inWidth + "x" + inHeight);
 
-		// Note: coordinates reversed to mimic storage of BufferedImage, for memory locality
-		final boolean[][] bitmap = new boolean[inHeight][inWidth];
-		for (int y = 0; y < inHeight; ++y) {
-			for (int x = 0; x < inWidth; ++x) {
-				bitmap[y][x] = isInside(inImage.getRGB(x, y));
+		final float[] signedDistances = scratchDistances(outWidth * outHeight);
+		if (engine == Engine.Coverage) {
+			if (coverageTransform == null)
+				coverageTransform = new CoverageDistanceTransform(outWidth, outHeight);
+			else
+				coverageTransform.reset(outWidth, outHeight);
+			coverageTransform.signedDistances(readCoverage(inImage, inWidth, inHeight), signedDistances);
+			for (int i = 0, n = outWidth * outHeight; i < n; i++) {
+				// Distances are in output pixels, the spread in input pixels.
+				float distance = signedDistances[i] * downscale;
+				signedDistances[i] = Math.max(-spread, Math.min(spread, distance));
 			}
+			return signedDistances;
 		}
 
-		for (int y = 0; y < outHeight; ++y) {
-			for (int x = 0; x < outWidth; ++x) {
-				int centerX = (x * downscale) + (downscale / 2);
-				int centerY = (y * downscale) + (downscale / 2);
-				float signedDistance = findSignedDistance(centerX, centerY, bitmap);
-				outImage.setRGB(x, y, distanceToRGB(signedDistance));
+		final BinaryBitmap bitmap = readBitmap(inImage, inWidth, inHeight);
+
+		if (engine == Engine.Separable) {
+			if (squareDists == null || squareDists.length < outWidth * outHeight) squareDists = new int[outWidth * outHeight];
+			if (transform == null)
+				transform = new DistanceTransform(inWidth, inHeight, downscale);
+			else
+				transform.reset(inWidth, inHeight, downscale);
+			transform.squaredDistances(bitmap, squareDists, parallelism);
+			for (int y = 0; y < outHeight; ++y) {
+				for (int x = 0; x < outWidth; ++x) {
+					int centerX = (x * downscale) + (downscale / 2);
+					int centerY = (y * downscale) + (downscale / 2);
+					signedDistances[y * outWidth + x] = toSignedDistance(bitmap.get(centerX, centerY), squareDists[y * outWidth + x]);
+				}
 			}
+		} else {
+			Bands.run(parallelism, outHeight, new Bands.Body() {
+				public void run (int start, int end) {
+					for (int y = start; y < end; ++y) {
+						for (int x = 0; x < outWidth; ++x) {
+							int centerX = (x * downscale) + (downscale / 2);
+							int centerY = (y * downscale) + (downscale / 2);
+							signedDistances[y * outWidth + x] = findSignedDistance(centerX, centerY, bitmap);
+						}
+					}
+				}
+			});
 		}
+		return signedDistances;
+	}
+
+	/** @throws IllegalArgumentException if the image can't hold a distance field of the given size */
+	private static void checkOutImage (BufferedImage outImage, int width, int height) {
+		if (outImage.getType() != BufferedImage.TYPE_4BYTE_ABGR)
+			throw new IllegalArgumentException("outImage must be of type TYPE_4BYTE_ABGR");
+		if (width > outImage.getWidth() || height > outImage.getHeight())
+			throw new IllegalArgumentException("outImage is smaller than " + width + "x" + height);
+	}
 
+	/** Returns the scratch array for the signed distances, with room for at least {@code size} of them. */
+	private float[] scratchDistances (int size) {
+		if (signedDistances == null || signedDistances.length < size) signedDistances = new float[size];
+		return signedDistances;
+	}
+
+	/** Computes the distance field directly from the outline of a shape, instead of from a rasterized image.
+	 * 
+	 * The distance from the center of every output pixel to the nearest line or curve of the shape is computed exactly, and
+	 * the shape's winding rule decides whether the pixel is inside. No upscaled image is needed, so {@link #getDownscale()} is
+	 * ignored and the spread is measured in output pixels. Segments are bucketed in a uniform grid so that only those within
+	 * {@code spread} of a pixel are looked at.
+	 * 
+	 * @param shape the shape to process, in output pixel coordinates
+	 * @param width the width of the output image
+	 * @param height the height of the output image
+	 * @return the distance field image */
+	public BufferedImage generateDistanceField (Shape shape, int width, int height) {
+		BufferedImage outImage = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+		generateDistanceField(shape, width, height, outImage);
 		return outImage;
 	}
 
+	/** Computes the distance field of a shape into the top left corner of an existing image, see
+	 * {@link #generateDistanceField(Shape, int, int)}.
+	 * 
+	 * @param outImage a {@code TYPE_4BYTE_ABGR} image of at least {@code width * height} pixels
+	 * @throws IllegalArgumentException if the output image is too small or has the wrong type */
+	public void generateDistanceField (Shape shape, int width, int height, BufferedImage outImage) {
+		checkOutImage(outImage, width, height);
+		writePixels(computeSignedDistances(shape, width, height), outImage, width, height);
+	}
+
+	/** Computes the signed distances of a shape without turning them into an image, see
+	 * {@link #generateSignedDistances(BufferedImage, int, int)} and {@link #generateDistanceField(Shape, int, int)}.
+	 * 
+	 * @return the signed distance of every output pixel, positive inside, clamped to the spread */
+	public float[] generateSignedDistances (Shape shape, int width, int height) {
+		return Arrays.copyOf(computeSignedDistances(shape, width, height), width * height);
+	}
+
+	/** Computes the signed distances of a shape into the scratch array. */
+	private float[] computeSignedDistances (Shape shape, final int width, final int height) {
+		final Outline outline = new Outline(shape);
+		outline.buildGrid(Math.max(1, spread), width, height);
+
+		final float[] signedDistances = scratchDistances(width * height);
+		Bands.run(parallelism, height, new Bands.Body() {
+			public void run (int start, int end) {
+				boolean[] inside = new boolean[width];
+				double[] crossings = null;
+				double[] roots = new double[3];
+				for (int y = start; y < end; ++y) {
+					crossings = outline.fillRow(y + 0.5, width, inside, crossings);
+					for (int x = 0; x < width; ++x) {
+						float distance = (float)outline.distance(x + 0.5, y + 0.5, spread, roots);
+						signedDistances[y * width + x] = (inside[x] ? 1 : -1) * Math.min(distance, spread);
+					}
+				}
+			}
+		});
+		return signedDistances;
+	}
+
+	/** Thresholds the image into a packed bitmap, see {@link #isInside(int)}. The common image types are read straight from their
+	 * {@link DataBuffer}, anything else a row at a time through {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+	 * 
+	 * @param image the image to read
+	 * @param width the width of the part of the image to read
+	 * @param height the height of the part of the image to read
+	 * @return the bitmap, with a bit set for every pixel that is "inside" */
+	private BinaryBitmap readBitmap (final BufferedImage image, final int width, final int height) {
+		if (bitmap == null)
+			bitmap = new BinaryBitmap(width, height);
+		else
+			bitmap.reset(width, height);
+		final BinaryBitmap bitmap = this.bitmap;
+		final WritableRaster raster = image.getRaster();
+		final SampleModel sampleModel = raster.getSampleModel();
+		final DataBuffer dataBuffer = raster.getDataBuffer();
+		// Sub-images share the buffer of their parent at an offset; those simply take the slow path.
+		final boolean direct = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+			&& dataBuffer.getNumBanks() == 1 && dataBuffer.getOffset() == 0;
+
+		if (direct && sampleModel instanceof MultiPixelPackedSampleModel && dataBuffer instanceof DataBufferByte
+			&& image.getColorModel() instanceof IndexColorModel && sampleModel.getSampleSize(0) == 1
+			&& ((MultiPixelPackedSampleModel)sampleModel).getDataBitOffset() == 0) {
+			// TYPE_BYTE_BINARY: eight pixels per byte, leftmost pixel in the most significant bit.
+			final IndexColorModel colorModel = (IndexColorModel)image.getColorModel();
+			final long[] lookup = new long[256];
+			for (int b = 0; b < 256; b++) {
+				for (int bit = 0; bit < 8; bit++) {
+					int index = (b >> (7 - bit)) & 1;
+					if (index < colorModel.getMapSize() && isInside(colorModel.getRGB(index))) lookup[b] |= 1L << bit;
+				}
+			}
+			final byte[] data = ((DataBufferByte)dataBuffer).getData();
+			final int stride = ((MultiPixelPackedSampleModel)sampleModel).getScanlineStride();
+			final int rowBytes = (width + 7) >> 3;
+			Bands.run(parallelism, height, new Bands.Body() {
+				public void run (int start, int end) {
+					long[] bits = bitmap.bits;
+					for (int y = start; y < end; ++y) {
+						int rowWord = y * bitmap.wordsPerRow;
+						for (int i = 0, offset = y * stride; i < rowBytes; ++i)
+							bits[rowWord + (i >> 3)] |= lookup[data[offset + i] & 0xFF] << ((i & 7) << 3);
+						// Clear the padding bits after the last pixel of the row.
+						if ((width & 63) != 0) bits[rowWord + bitmap.wordsPerRow - 1] &= -1L >>> (64 - (width & 63));
+					}
+				}
+			});
+		} else if (direct && (image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB)) {
+			final int[] data = ((DataBufferInt)dataBuffer).getData();
+			final int stride = ((SinglePixelPackedSampleModel)sampleModel).getScanlineStride();
+			final int opaque = image.getType() == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0;
+			Bands.run(parallelism, height, new Bands.Body() {
+				public void run (int start, int end) {
+					for (int y = start; y < end; ++y)
+						for (int x = 0, offset = y * stride; x < width; ++x)
+							if (isInside(data[offset + x] | opaque)) bitmap.set(x, y);
+				}
+			});
+		} else if (direct && (image.getType() == BufferedImage.TYPE_4BYTE_ABGR || image.getType() == BufferedImage.TYPE_BYTE_GRAY)) {
+			final byte[] data = ((DataBufferByte)dataBuffer).getData();
+			final ComponentSampleModel componentModel = (ComponentSampleModel)sampleModel;
+			final int stride = componentModel.getScanlineStride();
+			final int pixelStride = componentModel.getPixelStride();
+			final boolean gray = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+			// Gray is linear, so it has to go through the color model to get the same RGB values as getRGB.
+			final boolean[] grayInside = new boolean[256];
+			if (gray) for (int i = 0; i < 256; i++)
+				grayInside[i] = isInside(image.getColorModel().getRGB(i));
+			Bands.run(parallelism, height, new Bands.Body() {
+				public void run (int start, int end) {
+					for (int y = start; y < end; ++y) {
+						for (int x = 0, offset = y * stride; x < width; ++x, offset += pixelStride) {
+							boolean inside;
+							if (gray)
+								inside = grayInside[data[offset] & 0xFF];
+							else // A, B, G, R
+								inside = (data[offset] & 0x80) != 0 && ((data[offset + 1] | data[offset + 2] | data[offset + 3]) & 0x80) != 0;
+							if (inside) bitmap.set(x, y);
+						}
+					}
+				}
+			});
+		} else {
+			Bands.run(parallelism, height, new Bands.Body() {
+				public void run (int start, int end) {
+					int[] row = new int[width];
+					for (int y = start; y < end; ++y) {
+						image.getRGB(0, y, width, 1, row, 0, width);
+						for (int x = 0; x < width; ++x)
+							if (isInside(row[x])) bitmap.set(x, y);
+					}
+				}
+			});
+		}
+		return bitmap;
+	}
+
+	/** Reads the coverage of every output pixel, averaging the {@code downscale * downscale} input pixels it is made of, see
+	 * {@link #coverage(int)}. For {@code TYPE_BYTE_GRAY} images the gray level itself is the coverage.
+	 * 
+	 * @param image the image to read
+	 * @param width the width of the part of the image to read
+	 * @param height the height of the part of the image to read
+	 * @return the coverage of every output pixel from 0 to 1, row by row */
+	private double[] readCoverage (final BufferedImage image, final int width, int height) {
+		final int outWidth = width / downscale;
+		final int outHeight = height / downscale;
+		if (coverage == null || coverage.length < outWidth * outHeight) coverage = new double[outWidth * outHeight];
+		final double[] coverage = this.coverage;
+		final double scale = 1.0 / (downscale * downscale * 0xFF);
+		// Java2D blends gray images in their raw values, getRGB would add a gamma curve to the coverage.
+		final boolean gray = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+		final WritableRaster raster = image.getRaster();
+		Bands.run(parallelism, outHeight, new Bands.Body() {
+			public void run (int start, int end) {
+				int[] row = new int[width];
+				int[] sums = new int[outWidth];
+				for (int y = start; y < end; ++y) {
+					Arrays.fill(sums, 0);
+					for (int inY = y * downscale, endY = inY + downscale; inY < endY; ++inY) {
+						if (gray) {
+							raster.getSamples(0, inY, width, 1, 0, row);
+							for (int x = 0, inX = 0; x < outWidth; ++x)
+								for (int endX = inX + downscale; inX < endX; ++inX)
+									sums[x] += row[inX];
+						} else {
+							image.getRGB(0, inY, width, 1, row, 0, width);
+							for (int x = 0, inX = 0; x < outWidth; ++x)
+								for (int endX = inX + downscale; inX < endX; ++inX)
+									sums[x] += coverage(row[inX]);
+						}
+					}
+					for (int x = 0; x < outWidth; ++x)
+						coverage[y * outWidth + x] = sums[x] * scale;
+				}
+			}
+		});
+		return coverage;
+	}
+
+	/** Returns how much of a pixel of an anti-aliased image is "inside", from 0 to 255: the brightest color channel, limited by
+	 * the alpha channel. This agrees with {@link #isInside(int)} on black and white images. */
+	private int coverage (int argb) {
+		int brightest = Math.max((argb >> 16) & 0xFF, Math.max((argb >> 8) & 0xFF, argb & 0xFF));
+		return Math.min(argb >>> 24, brightest);
+	}
+
+	/** Writes the signed distances into the top left corner of the {@code TYPE_4BYTE_ABGR} output image, straight into its
+	 * backing byte array.
+	 * 
+	 * @param signedDistances the signed distance of every output pixel, row by row
+	 * @param outImage the image to write to
+	 * @param width the width of the distance field
+	 * @param height the height of the distance field */
+	private void writePixels (float[] signedDistances, BufferedImage outImage, int width, int height) {
+		WritableRaster raster = outImage.getRaster();
+		if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0) {
+			// A sub-image, let the raster find the pixels.
+			int[] pixel = new int[4];
+			for (int y = 0, i = 0; y < height; ++y) {
+				for (int x = 0; x < width; ++x, ++i) {
+					pixel[0] = color.getRed();
+					pixel[1] = color.getGreen();
+					pixel[2] = color.getBlue();
+					pixel[3] = distanceToAlpha(signedDistances[i]);
+					raster.setPixel(x, y, pixel);
+				}
+			}
+			return;
+		}
+		byte[] data = ((DataBufferByte)raster.getDataBuffer()).getData();
+		int stride = ((ComponentSampleModel)raster.getSampleModel()).getScanlineStride();
+		byte red = (byte)color.getRed(), green = (byte)color.getGreen(), blue = (byte)color.getBlue();
+		for (int y = 0, i = 0; y < height; ++y) {
+			for (int x = 0, offset = y * stride; x < width; ++x, ++i, offset += 4) {
+				data[offset] = (byte)distanceToAlpha(signedDistances[i]);
+				data[offset + 1] = blue;
+				data[offset + 2] = green;
+				data[offset + 3] = red;
+			}
+		}
+	}
+
 	/** Returns {@code true} if the color is considered as the "inside" of the image, {@code false} if considered "outside".
 	 * 
 	 * <p>
@@ -165,15 +548,14 @@ public class DistanceFieldGenerator {
 		return (rgb & 0x808080) != 0 && (rgb & 0x80000000) != 0;
 	}
 
-	/** For a distance as returned by {@link #findSignedDistance}, returns the corresponding "RGB" (really ARGB) color value.
+	/** For a distance as returned by {@link #findSignedDistance}, returns the corresponding alpha value.
 	 * 
 	 * @param signedDistance the signed distance of a pixel
-	 * @return an ARGB color value suitable for {@link BufferedImage#setRGB}. */
-	private int distanceToRGB (float signedDistance) {
+	 * @return an alpha value from 0 to 255 */
+	private int distanceToAlpha (float signedDistance) {
 		float alpha = 0.5f + 0.5f * (signedDistance / spread);
 		alpha = Math.min(1, Math.max(0, alpha)); // compensate for rounding errors
-		int alphaByte = (int)(alpha * 0xFF); // no unsigned byte in Java :(
-		return (alphaByte << 24) | (color.getRGB() & 0xFFFFFF);
+		return (int)(alpha * 0xFF); // no unsigned byte in Java :(
 	}
 
 	/** Returns the signed distance for a given point.
@@ -184,12 +566,12 @@ public class DistanceFieldGenerator {
 	 * 
 	 * @param centerX the x coordinate of the center point
 	 * @param centerY the y coordinate of the center point
-	 * @param bitmap the array representation of an image, {@code true} representing "inside"
+	 * @param bitmap the packed representation of an image, a set bit representing "inside"
 	 * @return the signed distance */
-	private float findSignedDistance (final int centerX, final int centerY, boolean[][] bitmap) {
-		final int width = bitmap[0].length;
-		final int height = bitmap.length;
-		final boolean base = bitmap[centerY][centerX];
+	private float findSignedDistance (final int centerX, final int centerY, BinaryBitmap bitmap) {
+		final int width = bitmap.width;
+		final int height = bitmap.height;
+		final boolean base = bitmap.get(centerX, centerY);
 
 		final int delta = (int)Math.ceil(spread);
 		final int startX = Math.max(0, centerX - delta);
@@ -201,7 +583,7 @@ public class DistanceFieldGenerator {
 
 		for (int y = startY; y <= endY; ++y) {
 			for (int x = startX; x <= endX; ++x) {
-				if (base != bitmap[y][x]) {
+				if (base != bitmap.get(x, y)) {
 					final int squareDist = squareDist(centerX, centerY, x, y);
 					if (squareDist < closestSquareDist) {
 						closestSquareDist = squareDist;
@@ -210,7 +592,18 @@ public class DistanceFieldGenerator {
 			}
 		}
 
-		float closestDist = (float)Math.sqrt(closestSquareDist);
+		return toSignedDistance(base, closestSquareDist);
+	}
+
+	/** Turns the squared distance to the closest pixel of different color into a signed distance, clamped to {@code spread} the
+	 * same way {@link #findSignedDistance} does, so that all engines produce identical results.
+	 * 
+	 * @param base whether the point itself is "inside"
+	 * @param closestSquareDist the squared distance to the closest pixel of different color, may be arbitrarily large
+	 * @return the signed distance */
+	private float toSignedDistance (boolean base, int closestSquareDist) {
+		final int delta = (int)Math.ceil(spread);
+		float closestDist = (float)Math.sqrt(Math.min(closestSquareDist, delta * delta));
 		return (base ? 1 : -1) * Math.min(closestDist, spread);
 	}
 
@@ -219,10 +612,21 @@ public class DistanceFieldGenerator {
 		System.out.println("Generates a distance field image from a black and white input image.\n"
 			+ "The distance field image contains a solid color and stores the distance\n" + "in the alpha channel.\n" + "\n"
 			+ "The output file format is inferred from the file name.\n" + "\n"
-			+ "Command line arguments: INFILE OUTFILE [OPTION...]\n" + "\n" + "Possible options:\n"
+			+ "Command line arguments: INFILE OUTFILE [OPTION...]\n"
+			+ "                    or: --output DIR INPUT... [OPTION...]\n" + "\n"
+			+ "An INPUT is an image file, a directory whose images are all converted, or a\n"
+			+ "glob such as 'sprites/*.png'. Every output is written to DIR with the name of\n"
+			+ "its input. Inputs whose outputs would have the same name are an error.\n" + "\n"
+			+ "Possible options:\n"
 			+ "  --color rrggbb    color of output image (default: ffffff)\n"
 			+ "  --downscale n     downscale by factor of n (default: 1)\n"
-			+ "  --spread n        edge scan distance (default: 1)\n");
+			+ "  --spread n        edge scan distance (default: 1)\n"
+			+ "  --engine name     bruteforce, separable or coverage (default: separable)\n"
+			+ "  --threads n       number of threads to use (default: number of processors)\n"
+			+ "  --output dir      convert many inputs into this directory\n"
+			+ "  --format name     output format in a batch, e.g. bmp (default: png)\n"
+			+ "  --jobs n          number of files converted at once in a batch\n"
+			+ "                    (default: number of threads)\n");
 	}
 
 	/** Thrown when the command line contained nonsense. */
@@ -246,13 +650,24 @@ public class DistanceFieldGenerator {
 		}
 	}
 
+	/** Parses an engine name as given on the command line, ignoring case.
+	 * @throws CommandLineArgumentException if there is no engine with this name */
+	private static Engine parseEngine (String name) {
+		for (Engine engine : Engine.values())
+			if (engine.name().equalsIgnoreCase(name)) return engine;
+		throw new CommandLineArgumentException("unknown engine " + name);
+	}
+
 	/** Runs the program.
 	 * @param args command line arguments
 	 * @throws CommandLineArgumentException if the command line contains an error */
 	private static void run (String[] args) {
 		DistanceFieldGenerator generator = new DistanceFieldGenerator();
-		String inputFile = null;
-		String outputFile = null;
+		generator.setParallelism(Runtime.getRuntime().availableProcessors());
+		List<String> inputs = new ArrayList<>();
+		String outputDir = null;
+		String format = null;
+		int jobs = 0;
 
 		int i = 0;
 		try {
@@ -275,17 +690,32 @@ public class DistanceFieldGenerator {
 							++i;
 							generator.setSpread(Float.parseFloat(args[i]));
 							break;
+						case "--engine":
+							++i;
+							generator.setEngine(parseEngine(args[i]));
+							break;
+						case "--threads":
+							++i;
+							generator.setParallelism(Integer.parseInt(args[i]));
+							break;
+						case "--output":
+							++i;
+							outputDir = args[i];
+							break;
+						case "--format":
+							++i;
+							format = args[i];
+							break;
+						case "--jobs":
+							++i;
+							jobs = Integer.parseInt(args[i]);
+							if (jobs <= 0) throw new CommandLineArgumentException("--jobs must be positive");
+							break;
 						default:
 							throw new CommandLineArgumentException("unknown option " + arg);
 					}
 				} else {
-					if (inputFile == null) {
-						inputFile = arg;
-					} else if (outputFile == null) {
-						outputFile = arg;
-					} else {
-						throw new CommandLineArgumentException("exactly two file names are expected");
-					}
+					inputs.add(arg);
 				}
 			}
 		} catch (IndexOutOfBoundsException e) {
@@ -293,15 +723,24 @@ public class DistanceFieldGenerator {
 		} catch (NumberFormatException e) {
 			throw new CommandLineArgumentException(args[i] + " is not a number");
 		}
-		if (inputFile == null) {
+
+		if (outputDir != null) {
+			runBatch(generator, inputs, new File(outputDir), format, jobs == 0 ? generator.getParallelism() : jobs);
+			return;
+		}
+		if (inputs.isEmpty()) {
 			throw new CommandLineArgumentException("no input file specified");
 		}
-		if (outputFile == null) {
+		if (inputs.size() == 1) {
 			throw new CommandLineArgumentException("no output file specified");
 		}
+		if (inputs.size() > 2) {
+			throw new CommandLineArgumentException("exactly two file names are expected, use --output for more inputs");
+		}
+		String inputFile = inputs.get(0);
+		String outputFile = inputs.get(1);
 
 		String outputFormat = outputFile.substring(outputFile.lastIndexOf('.') + 1);
-		boolean exists;
 		if (!ImageIO.getImageWritersByFormatName(outputFormat).hasNext()) {
 			throw new RuntimeException("No image writers found that can handle the format '" + outputFormat + "'");
 		}
@@ -321,4 +760,152 @@ public class DistanceFieldGenerator {
 			System.err.println("Failed to write output image: " + e.getMessage());
 		}
 	}
+
+	/** Converts many files on a pool of worker threads. Every worker has its own copy of the generator, so its buffers are reused
+	 * for all the files it converts. Prints the time taken for each file and a summary.
+	 * @param generator the generator whose settings are used
+	 * @param inputs files, directories and globs to convert
+	 * @param outputDir the directory to write the distance fields to
+	 * @param format the output format, or null for PNG. The distance is stored in the alpha channel, so the format must keep it.
+	 * @param jobs the number of files to convert at once
+	 * @throws CommandLineArgumentException if there is nothing to convert or two inputs would be written to the same file */
+	private static void runBatch (final DistanceFieldGenerator generator, List<String> inputs, final File outputDir,
+		final String format, int jobs) {
+		final List<File> files = expandInputs(inputs);
+		if (files.isEmpty()) throw new CommandLineArgumentException("no input files found");
+		final String outputFormat = format != null ? format : "png";
+		if (!ImageIO.getImageWritersByFormatName(outputFormat).hasNext()) {
+			throw new CommandLineArgumentException("no image writers found that can handle the format '" + outputFormat + "'");
+		}
+		final List<File> outputFiles = getOutputFiles(files, outputDir, outputFormat);
+		if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+			throw new CommandLineArgumentException("cannot create output directory " + outputDir);
+		}
+
+		jobs = Math.min(jobs, files.size());
+		// The processors are shared between the files converted at once.
+		final int parallelism = Math.max(1, generator.getParallelism() / jobs);
+		final ThreadLocal<DistanceFieldGenerator> generators = new ThreadLocal<DistanceFieldGenerator>() {
+			protected DistanceFieldGenerator initialValue () {
+				DistanceFieldGenerator copy = new DistanceFieldGenerator();
+				copy.setColor(generator.getColor());
+				copy.setDownscale(generator.getDownscale());
+				copy.setSpread(generator.getSpread());
+				copy.setEngine(generator.getEngine());
+				copy.setParallelism(parallelism);
+				return copy;
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(jobs);
+		List<Future<Long>> results = new ArrayList<>(files.size());
+		long start = System.nanoTime();
+		for (int i = 0; i < files.size(); i++) {
+			final File file = files.get(i), outputFile = outputFiles.get(i);
+			results.add(executor.submit(new Callable<Long>() {
+				public Long call () throws IOException {
+					long fileStart = System.nanoTime();
+					BufferedImage input = ImageIO.read(file);
+					if (input == null) throw new IOException("not a readable image");
+					BufferedImage output = generators.get().generateDistanceField(input);
+					if (!ImageIO.write(output, outputFormat, outputFile)) throw new IOException("cannot write " + outputFormat);
+					return System.nanoTime() - fileStart;
+				}
+			}));
+		}
+		executor.shutdown();
+
+		int failed = 0;
+		long total = 0, slowest = 0;
+		for (int i = 0; i < files.size(); i++) {
+			try {
+				long time = results.get(i).get();
+				total += time;
+				slowest = Math.max(slowest, time);
+				System.out.printf("%8.1f ms  %s%n", time / 1e6, files.get(i));
+			} catch (ExecutionException e) {
+				failed++;
+				System.err.println("Failed to convert " + files.get(i) + ": " + e.getCause().getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		int converted = files.size() - failed;
+		System.out.printf("Converted %d of %d files in %.1f ms (%.1f ms per file, slowest %.1f ms, %d jobs)%n", converted,
+			files.size(), (System.nanoTime() - start) / 1e6, converted == 0 ? 0 : total / 1e6 / converted, slowest / 1e6, jobs);
+		if (failed > 0) System.exit(1);
+	}
+
+	/** Returns the file in the output directory each input is written to: the input's name with the extension of the format.
+	 * @throws CommandLineArgumentException if two inputs would be written to the same file, since the last one written would
+	 *            silently replace the others */
+	private static List<File> getOutputFiles (List<File> files, File outputDir, String format) {
+		List<File> outputFiles = new ArrayList<>(files.size());
+		Map<String, File> inputsByOutput = new HashMap<>();
+		for (File file : files) {
+			String name = file.getName();
+			String baseName = name.lastIndexOf('.') == -1 ? name : name.substring(0, name.lastIndexOf('.'));
+			File outputFile = new File(outputDir, baseName + "." + format);
+			// Compared ignoring case, since some file systems do.
+			File other = inputsByOutput.put(outputFile.getName().toLowerCase(Locale.ROOT), file);
+			if (other != null) {
+				throw new CommandLineArgumentException(
+					"inputs " + other + " and " + file + " would both be written to " + outputFile + ", rename one of them");
+			}
+			outputFiles.add(outputFile);
+		}
+		return outputFiles;
+	}
+
+	/** Turns the inputs given on the command line into a list of files. Directories are replaced by the images in them, and
+	 * inputs containing {@code *}, {@code ?}, {@code [} or <code>{</code> are matched as globs against the files in their
+	 * directory.
+	 * @throws CommandLineArgumentException if an input doesn't exist */
+	private static List<File> expandInputs (List<String> inputs) {
+		List<File> files = new ArrayList<>();
+		for (String input : inputs) {
+			File file = new File(input);
+			if (file.isDirectory()) {
+				File[] children = file.listFiles();
+				if (children == null) continue;
+				Arrays.sort(children);
+				for (File child : children)
+					if (child.isFile() && isImage(child)) files.add(child);
+			} else if (file.isFile()) {
+				files.add(file);
+			} else if (input.matches(".*[*?\\[{].*")) {
+				File dir = file.getParentFile() == null ? new File(".") : file.getParentFile();
+				PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + file.getName());
+				File[] children = dir.listFiles();
+				if (children == null) continue;
+				Arrays.sort(children);
+				for (File child : children)
+					if (child.isFile() && matcher.matches(Paths.get(child.getName()))) files.add(child);
+			} else {
+				throw new CommandLineArgumentException("input " + input + " does not exist");
+			}
+		}
+		return files;
+	}
+
+	/** Returns true if an image reader is registered for the file's extension. */
+	private static boolean isImage (File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return dot != -1 && ImageIO.getImageReadersBySuffix(name.substring(dot + 1)).hasNext();
+	}
+
+	/** The algorithm used to find the distance from each output pixel to the nearest edge. */
+	public enum Engine {
+		/** Scans the whole (2 * spread + 1)² window around every output pixel. The cost grows with the square of the spread. */
+		BruteForce,
+		/** Exact two-pass separable Euclidean distance transform. The cost is linear in the number of input pixels and does not
+		 * depend on the spread. */
+		Separable,
+		/** Anti-aliased Euclidean distance transform of the coverage of the input, which is averaged down to the output size
+		 * first. Edges are located to a fraction of a pixel, so an anti-aliased image at (or a little above) the output size gives
+		 * the quality the binary engines need a large downscale for. */
+		Coverage
+	}
 }
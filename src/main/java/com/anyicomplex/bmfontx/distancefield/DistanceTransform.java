@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+/** Exact two-pass separable Euclidean distance transform of a binary image, after Meijster et al. "A General Algorithm for
+ * Computing Distance Transforms in Linear Time" and Felzenszwalb &amp; Huttenlocher "Distance Transforms of Sampled Functions".
+ *
+ * <p>
+ * The first pass finds, for every pixel, the vertical distance to the nearest pixel of each color in its column. The second
+ * pass takes the lower envelope of the parabolas those distances describe along every sampled row. Both passes are linear in
+ * the number of pixels, so unlike a windowed scan the cost does not depend on how far we look for an edge.
+ * @author Yi An */
+final class DistanceTransform {
+	private int width, height;
+	private int downscale, outWidth, outHeight;
+	/** Sentinel for "no such pixel in this column". Small enough that its square plus the square of any x offset fits an int. */
+	private int infinity;
+	/** Vertical distances to the nearest inside/outside pixel, only for the rows that are sampled. */
+	private int[] columnInside, columnOutside;
+
+	DistanceTransform (int width, int height, int downscale) {
+		reset(width, height, downscale);
+	}
+
+	/** Prepares the transform for another image size. The scratch arrays are only reallocated if they don't fit. */
+	void reset (int width, int height, int downscale) {
+		this.width = width;
+		this.height = height;
+		this.downscale = downscale;
+		outWidth = width / downscale;
+		outHeight = height / downscale;
+		infinity = width + height;
+		int size = outHeight * width;
+		if (columnInside == null || columnInside.length < size) {
+			columnInside = new int[size];
+			columnOutside = new int[size];
+		}
+	}
+
+	/** Computes, for every output pixel, the squared distance from its sample point to the nearest input pixel of the opposite
+	 * color, or a value of at least {@code (width + height)²} if there is none. Columns and rows are split into bands that are
+	 * processed on up to {@code parallelism} threads; the result is the same for any parallelism.
+	 * @param bitmap the input image
+	 * @param out receives {@code outWidth * outHeight} squared distances, row by row */
+	void squaredDistances (final BinaryBitmap bitmap, final int[] out, int parallelism) {
+		Bands.run(parallelism, width, new Bands.Body() {
+			public void run (int start, int end) {
+				int[] column = new int[height];
+				for (int x = start; x < end; x++) {
+					columnPass(bitmap, x, true, column, columnInside);
+					columnPass(bitmap, x, false, column, columnOutside);
+				}
+			}
+		});
+		Bands.run(parallelism, outHeight, new Bands.Body() {
+			public void run (int start, int end) {
+				int[] f = new int[width];
+				int[] v = new int[width];
+				double[] z = new double[width + 1];
+				int[] inside = new int[outWidth];
+				int[] outside = new int[outWidth];
+				for (int y = start; y < end; y++) {
+					int centerY = y * downscale + downscale / 2;
+					rowPass(columnInside, y, f, v, z, inside);
+					rowPass(columnOutside, y, f, v, z, outside);
+					for (int x = 0, offset = y * outWidth; x < outWidth; x++) {
+						int centerX = x * downscale + downscale / 2;
+						// An inside pixel is as far from the edge as the nearest outside pixel, and vice versa.
+						out[offset + x] = bitmap.get(centerX, centerY) ? outside[x] : inside[x];
+					}
+				}
+			}
+		});
+	}
+
+	/** Finds the vertical distance from every pixel in column {@code x} to the nearest pixel whose value is {@code target}, and
+	 * stores it for the sampled rows. */
+	private void columnPass (BinaryBitmap bitmap, int x, boolean target, int[] column, int[] result) {
+		int distance = infinity;
+		for (int y = 0; y < height; y++) {
+			if (bitmap.get(x, y) == target)
+				distance = 0;
+			else if (distance < infinity) distance++;
+			column[y] = distance;
+		}
+		distance = infinity;
+		for (int y = height - 1; y >= 0; y--) {
+			if (bitmap.get(x, y) == target)
+				distance = 0;
+			else if (distance < infinity) distance++;
+			if (distance < column[y]) column[y] = distance;
+		}
+		for (int y = 0; y < outHeight; y++)
+			result[y * width + x] = column[y * downscale + downscale / 2];
+	}
+
+	/** Computes the lower envelope of the parabolas {@code (x - q)² + g(q)²} for sampled row {@code y} and evaluates it at every
+	 * sampled column. */
+	private void rowPass (int[] columnDistances, int y, int[] f, int[] v, double[] z, int[] result) {
+		for (int q = 0, offset = y * width; q < width; q++) {
+			int g = columnDistances[offset + q];
+			f[q] = g * g;
+		}
+
+		int k = 0;
+		v[0] = 0;
+		z[0] = Double.NEGATIVE_INFINITY;
+		z[1] = Double.POSITIVE_INFINITY;
+		for (int q = 1; q < width; q++) {
+			double s = intersection(f, v[k], q);
+			while (s <= z[k]) {
+				k--;
+				s = intersection(f, v[k], q);
+			}
+			k++;
+			v[k] = q;
+			z[k] = s;
+			z[k + 1] = Double.POSITIVE_INFINITY;
+		}
+
+		k = 0;
+		for (int x = 0; x < outWidth; x++) {
+			int q = x * downscale + downscale / 2;
+			while (z[k + 1] < q)
+				k++;
+			int dx = q - v[k];
+			result[x] = dx * dx + f[v[k]];
+		}
+	}
+
+	/** Returns the x coordinate where the parabola rooted at {@code q} starts to lie below the one rooted at {@code p}. */
+	private static double intersection (int[] f, int p, int q) {
+		return ((f[q] + (double)q * q) - (f[p] + (double)p * p)) / (2.0 * (q - p));
+	}
+}
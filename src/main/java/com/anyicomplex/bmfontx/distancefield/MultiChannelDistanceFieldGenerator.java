@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+
+/** Generates a multi-channel signed distance field (MSDF) from the outline of a shape.
+ * 
+ * <p>
+ * A single-channel distance field rounds off sharp corners, because the distance is measured to whichever edge is nearest.
+ * Here the edges of every contour are colored so that the two edges meeting at a corner never share all channels, and each of
+ * the red, green and blue channels stores the signed pseudo-distance to the nearest edge of its color. Taking the median of the
+ * three channels when rendering reconstructs the corner sharply, so much smaller glyphs are needed for the same quality. The alpha
+ * channel stores the true single-channel distance field.
+ * 
+ * <p>
+ * The technique is described in the master's thesis "Shape Decomposition for Multi-channel Distance Fields" by Viktor Chlumský:
+ * <a href="https://github.com/Chlumsky/msdfgen">https://github.com/Chlumsky/msdfgen</a>
+ * @author Yi An */
+public class MultiChannelDistanceFieldGenerator {
+	static private final int RED = 1, GREEN = 2, BLUE = 4;
+	static private final int YELLOW = RED | GREEN, MAGENTA = RED | BLUE, CYAN = GREEN | BLUE, WHITE = RED | GREEN | BLUE;
+
+	private float spread = 1;
+	private double angleThreshold = 3;
+	private boolean errorCorrection = true;
+	private int parallelism = 1;
+	/** Tangents for the contour setup, which runs on the calling thread. The bands have their own. */
+	private final double[] tangent = new double[2], nextTangent = new double[2];
+
+	/** @see #setSpread(float) */
+	public float getSpread () {
+		return spread;
+	}
+
+	/** Sets the spread of the distance field, in output pixels. Distances are normalized by the spread, so 0 and 255 are
+	 * {@code spread} pixels outside and inside the edge.
+	 * 
+	 * @param spread a positive number
+	 * @throws IllegalArgumentException if spread is not positive */
+	public void setSpread (float spread) {
+		if (spread <= 0) throw new IllegalArgumentException("spread must be positive");
+		this.spread = spread;
+	}
+
+	/** @see #setAngleThreshold(double) */
+	public double getAngleThreshold () {
+		return angleThreshold;
+	}
+
+	/** Sets the angle in radians below which two meeting edges form a corner that is kept sharp. Defaults to 3, just under 180
+	 * degrees, so nearly every visible corner is kept. */
+	public void setAngleThreshold (double angleThreshold) {
+		this.angleThreshold = angleThreshold;
+	}
+
+	/** @see #setErrorCorrection(boolean) */
+	public boolean getErrorCorrection () {
+		return errorCorrection;
+	}
+
+	/** Sets whether texels whose channels would interpolate to the wrong side of an edge are replaced by their median. Defaults
+	 * to true. */
+	public void setErrorCorrection (boolean errorCorrection) {
+		this.errorCorrection = errorCorrection;
+	}
+
+	/** @see #setParallelism(int) */
+	public int getParallelism () {
+		return parallelism;
+	}
+
+	/** Sets the number of threads used to generate a distance field, see {@link DistanceFieldGenerator#setParallelism(int)}.
+	 * 
+	 * @param parallelism a positive integer
+	 * @throws IllegalArgumentException if parallelism is not positive */
+	public void setParallelism (int parallelism) {
+		if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/** Computes the multi-channel distance field of a shape.
+	 * 
+	 * @param shape the shape to process, in output pixel coordinates
+	 * @param width the width of the output image
+	 * @param height the height of the output image
+	 * @return a {@code TYPE_INT_ARGB} image with the multi-channel distance in RGB and the true distance in alpha */
+	public BufferedImage generateDistanceField (final Shape shape, final int width, final int height) {
+		final Outline outline = new Outline(shape);
+		orientContours(outline, shape);
+		colorEdges(outline);
+		outline.buildGrid(Math.max(1, spread), width, height);
+
+		// Normalized distances, four per pixel: red, green, blue and the true distance.
+		final float[] field = new float[width * height * 4];
+		Bands.run(parallelism, height, new Bands.Body() {
+			public void run (int start, int end) {
+				boolean[] inside = new boolean[width];
+				double[] crossings = null;
+				double[] roots = new double[3], direction = new double[2];
+				int[] visited = new int[outline.segments.size()];
+				ChannelDistance[] channels = {new ChannelDistance(), new ChannelDistance(), new ChannelDistance()};
+				for (int y = start; y < end; ++y) {
+					crossings = outline.fillRow(y + 0.5, width, inside, crossings);
+					for (int x = 0; x < width; ++x) {
+						int pixel = y * width + x;
+						computePixel(outline, x + 0.5, y + 0.5, inside[x], pixel + 1, visited, roots, direction, channels, field,
+							pixel * 4);
+					}
+				}
+			}
+		});
+
+		if (errorCorrection) correctErrors(field, width, height);
+
+		BufferedImage outImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		int[] data = ((DataBufferInt)outImage.getRaster().getDataBuffer()).getData();
+		for (int i = 0, n = width * height; i < n; i++) {
+			data[i] = toByte(field[i * 4 + 3]) << 24 | toByte(field[i * 4]) << 16 | toByte(field[i * 4 + 1]) << 8
+				| toByte(field[i * 4 + 2]);
+		}
+		return outImage;
+	}
+
+	/** The nearest edge of one channel found so far for a pixel. */
+	static private class ChannelDistance {
+		double distance, dot;
+		Segment segment;
+		double t;
+
+		void reset () {
+			distance = Double.POSITIVE_INFINITY;
+			segment = null;
+		}
+	}
+
+	private void computePixel (Outline outline, double px, double py, boolean inside, int mark, int[] visited, double[] roots,
+		double[] direction, ChannelDistance[] channels, float[] field, int offset) {
+		for (ChannelDistance channel : channels)
+			channel.reset();
+		double trueDistance = spread;
+
+		int startColumn = outline.column(px - spread), endColumn = outline.column(px + spread);
+		int startRow = outline.row(py - spread), endRow = outline.row(py + spread);
+		for (int row = startRow; row <= endRow; row++) {
+			for (int column = startColumn; column <= endColumn; column++) {
+				for (int s : outline.cell(column, row)) {
+					if (visited[s] == mark) continue;
+					visited[s] = mark;
+					Segment segment = outline.segments.get(s);
+					double dx = Math.max(0, Math.max(segment.minX - px, px - segment.maxX));
+					double dy = Math.max(0, Math.max(segment.minY - py, py - segment.maxY));
+					if (dx * dx + dy * dy >= (double)spread * spread) continue;
+
+					double t = segment.nearest(px, py, roots);
+					double vx = px - segment.pointX(t), vy = py - segment.pointY(t);
+					double distance = Math.sqrt(vx * vx + vy * vy);
+					trueDistance = Math.min(trueDistance, distance);
+					unitDirection(segment, t, direction);
+					// Among equally near edges prefer the one we are most perpendicular to, it decides the sign correctly.
+					double dot = distance == 0 ? 0 : Math.abs(direction[0] * vx + direction[1] * vy) / distance;
+					for (int c = 0; c < 3; c++) {
+						if ((segment.color & (1 << c)) == 0) continue;
+						ChannelDistance channel = channels[c];
+						if (distance < channel.distance || (distance == channel.distance && dot < channel.dot)) {
+							channel.distance = distance;
+							channel.dot = dot;
+							channel.segment = segment;
+							channel.t = t;
+						}
+					}
+				}
+			}
+		}
+
+		int sign = inside ? 1 : -1;
+		for (int c = 0; c < 3; c++) {
+			ChannelDistance channel = channels[c];
+			double distance;
+			if (channel.segment == null)
+				distance = sign * spread; // No edge of this color nearby, saturate on the known side.
+			else
+				distance = pseudoDistance(channel.segment, channel.t, px, py, direction);
+			field[offset + c] = normalize(distance);
+		}
+		field[offset + 3] = normalize(sign * trueDistance);
+	}
+
+	/** Returns the signed distance from the point to the segment, positive inside. If the nearest point is an endpoint and the
+	 * point lies beyond it, the distance to the segment's extended tangent is used instead, which is what keeps corners sharp. */
+	private double pseudoDistance (Segment segment, double t, double px, double py, double[] direction) {
+		double vx = px - segment.pointX(t), vy = py - segment.pointY(t);
+		unitDirection(segment, t, direction);
+		double cross = direction[0] * vy - direction[1] * vx;
+		double distance = (cross >= 0 ? 1 : -1) * segment.side * Math.sqrt(vx * vx + vy * vy);
+		if (t == 0 || t == 1) {
+			double along = direction[0] * vx + direction[1] * vy;
+			if (t == 0 ? along < 0 : along > 0) {
+				double pseudo = cross * segment.side;
+				if (Math.abs(pseudo) <= Math.abs(distance)) distance = pseudo;
+			}
+		}
+		return distance;
+	}
+
+	private float normalize (double distance) {
+		return (float)(0.5 + 0.5 * Math.max(-spread, Math.min(spread, distance)) / spread);
+	}
+
+	static private int toByte (float value) {
+		return (int)(Math.min(1, Math.max(0, value)) * 0xFF);
+	}
+
+	/** Stores the unit tangent of the segment at {@code t}, falling back to the chord where a curve's tangent vanishes. */
+	static private void unitDirection (Segment segment, double t, double[] out) {
+		double dx = segment.directionX(t), dy = segment.directionY(t);
+		if (dx == 0 && dy == 0) {
+			dx = segment.x[segment.degree] - segment.x[0];
+			dy = segment.y[segment.degree] - segment.y[0];
+		}
+		double length = Math.sqrt(dx * dx + dy * dy);
+		if (length == 0) {
+			out[0] = 1;
+			out[1] = 0;
+		} else {
+			out[0] = dx / length;
+			out[1] = dy / length;
+		}
+	}
+
+	/** Decides for every contour which side of its segments is inside, by probing just beside each segment and letting the
+	 * longer segments outvote the shorter ones. */
+	private void orientContours (Outline outline, Shape shape) {
+		double[] direction = tangent;
+		for (ArrayList<Segment> contour : outline.contours) {
+			double vote = 0;
+			for (Segment segment : contour) {
+				double mx = segment.pointX(0.5), my = segment.pointY(0.5);
+				unitDirection(segment, 0.5, direction);
+				double ex = -direction[1] * PROBE_DISTANCE, ey = direction[0] * PROBE_DISTANCE;
+				boolean left = shape.contains(mx + ex, my + ey), right = shape.contains(mx - ex, my - ey);
+				if (left == right) continue;
+				double length = Math.hypot(segment.x[segment.degree] - segment.x[0], segment.y[segment.degree] - segment.y[0]);
+				vote += left ? length : -length;
+			}
+			int side = vote >= 0 ? 1 : -1;
+			for (Segment segment : contour)
+				segment.side = side;
+		}
+	}
+
+	static private final double PROBE_DISTANCE = 0.01;
+
+	/** Colors the edges of every contour so that the edges on both sides of a corner share only one channel, following
+	 * msdfgen's simple edge coloring. */
+	private void colorEdges (Outline outline) {
+		double crossThreshold = Math.sin(angleThreshold);
+		double[] a = tangent, b = nextTangent;
+		for (int index = 0; index < outline.contours.size(); index++) {
+			ArrayList<Segment> contour = outline.contours.get(index);
+			int m = contour.size();
+			ArrayList<Integer> corners = new ArrayList<>();
+			for (int i = 0; i < m; i++) {
+				unitDirection(contour.get((i + m - 1) % m), 1, a);
+				unitDirection(contour.get(i), 0, b);
+				double dot = a[0] * b[0] + a[1] * b[1], cross = a[0] * b[1] - a[1] * b[0];
+				if (dot <= 0 || Math.abs(cross) > crossThreshold) corners.add(i);
+			}
+
+			if (corners.isEmpty()) {
+				// Smooth contour, all channels agree.
+				for (Segment segment : contour)
+					segment.color = WHITE;
+			} else if (corners.size() == 1) {
+				// Teardrop, needs three colors around the single corner.
+				int[] colors = {CYAN, WHITE, MAGENTA};
+				int corner = corners.get(0);
+				if (m >= 3) {
+					for (int i = 0; i < m; i++)
+						contour.get((corner + i) % m).color = colors[(int)(3 + 2.875 * i / (m - 1) - 1.4375 + 0.5) - 2];
+				} else {
+					// Too few edges for three colors, split them.
+					ArrayList<Segment> parts = new ArrayList<>();
+					for (int i = 0; i < m; i++)
+						for (Segment part : contour.get((corner + i) % m).splitInThirds())
+							parts.add(part);
+					for (int i = 0, n = parts.size(); i < n; i++)
+						parts.get(i).color = colors[i * 3 / n];
+					outline.setContour(index, parts);
+				}
+			} else {
+				int cornerCount = corners.size();
+				int spline = 0, start = corners.get(0);
+				int color = CYAN, initialColor = color;
+				for (int i = 0; i < m; i++) {
+					int segmentIndex = (start + i) % m;
+					if (spline + 1 < cornerCount && corners.get(spline + 1) == segmentIndex) {
+						spline++;
+						color = switchColor(color, spline == cornerCount - 1 ? initialColor : 0);
+					}
+					contour.get(segmentIndex).color = color;
+				}
+			}
+		}
+	}
+
+	/** Returns the next of cyan, magenta and yellow. If that would share both channels with {@code banned}, returns the color
+	 * that shares only the one channel they have in common instead. */
+	static private int switchColor (int color, int banned) {
+		int combined = color & banned;
+		if (combined == RED || combined == GREEN || combined == BLUE) return combined ^ WHITE;
+		int shifted = color << 1;
+		return (shifted | shifted >> 3) & WHITE;
+	}
+
+	/** Finds texels whose channels differ so much from a neighbor's that bilinear filtering between them would produce a false
+	 * edge, and replaces their channels with the median. Also makes sure the median is on the correct side of the edge. */
+	private void correctErrors (float[] field, int width, int height) {
+		float threshold = (float)(1.001 / (2 * spread));
+		boolean[] clashes = new boolean[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int pixel = y * width + x;
+				if ((x > 0 && detectClash(field, pixel, pixel - 1, threshold))
+					|| (x < width - 1 && detectClash(field, pixel, pixel + 1, threshold))
+					|| (y > 0 && detectClash(field, pixel, pixel - width, threshold))
+					|| (y < height - 1 && detectClash(field, pixel, pixel + width, threshold))) clashes[pixel] = true;
+			}
+		}
+		for (int pixel = 0, n = width * height; pixel < n; pixel++) {
+			int i = pixel * 4;
+			float median = median(field[i], field[i + 1], field[i + 2]);
+			if (clashes[pixel]) field[i] = field[i + 1] = field[i + 2] = median;
+			if ((median > 0.5f) != (field[i + 3] > 0.5f) && field[i + 3] != 0.5f) {
+				// The channels disagree with the true distance about which side we're on.
+				field[i] = field[i + 1] = field[i + 2] = field[i + 3];
+			}
+		}
+	}
+
+	static private boolean detectClash (float[] field, int pixel, int other, float threshold) {
+		int i = pixel * 4, j = other * 4;
+		float a0 = field[i], a1 = field[i + 1], a2 = field[i + 2];
+		float b0 = field[j], b1 = field[j + 1], b2 = field[j + 2];
+		float swap;
+		// Sort the channel pairs so that their absolute difference goes from biggest to smallest.
+		if (Math.abs(b0 - a0) < Math.abs(b1 - a1)) {
+			swap = a0; a0 = a1; a1 = swap;
+			swap = b0; b0 = b1; b1 = swap;
+		}
+		if (Math.abs(b1 - a1) < Math.abs(b2 - a2)) {
+			swap = a1; a1 = a2; a2 = swap;
+			swap = b1; b1 = b2; b2 = swap;
+			if (Math.abs(b0 - a0) < Math.abs(b1 - a1)) {
+				swap = a0; a0 = a1; a1 = swap;
+				swap = b0; b0 = b1; b1 = swap;
+			}
+		}
+		// Only flag the texel of the pair that is farther from the edge.
+		return Math.abs(b1 - a1) >= threshold && !(b0 == b1 && b0 == b2) && Math.abs(a2 - 0.5f) >= Math.abs(b2 - 0.5f);
+	}
+
+	static private float median (float a, float b, float c) {
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+import java.awt.*;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+
+/** The closed contours of a {@link Shape}, made of line, quadratic and cubic {@link Segment}s, with a uniform grid to find the
+ * segments near a point and a scanline test to tell inside from outside.
+ * @author Yi An */
+final class Outline {
+	/** How far the flattened polygon used for the inside test may deviate from the curves. */
+	static private final double FLATNESS = 0.01;
+
+	final ArrayList<ArrayList<Segment>> contours = new ArrayList<>();
+	final ArrayList<Segment> segments = new ArrayList<>();
+	private final boolean evenOdd;
+	/** Edges of the flattened outline as x0, y0, x1, y1 quadruples. */
+	private double[] edges = new double[64];
+	private int edgeCount;
+
+	private double cellSize;
+	private int columns, rows;
+	private int[][] cells;
+
+	Outline (Shape shape) {
+		evenOdd = shape.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD;
+		readSegments(shape.getPathIterator(null));
+		readEdges(shape.getPathIterator(null, FLATNESS));
+	}
+
+	private void readSegments (PathIterator iterator) {
+		double[] coords = new double[6];
+		double startX = 0, startY = 0, lastX = 0, lastY = 0;
+		ArrayList<Segment> contour = null;
+		for (; !iterator.isDone(); iterator.next()) {
+			int type = iterator.currentSegment(coords);
+			switch (type) {
+			case PathIterator.SEG_MOVETO:
+				closeContour(contour, lastX, lastY, startX, startY);
+				contour = new ArrayList<>();
+				startX = lastX = coords[0];
+				startY = lastY = coords[1];
+				break;
+			case PathIterator.SEG_LINETO:
+				if (contour == null) break;
+				if (coords[0] != lastX || coords[1] != lastY)
+					addSegment(contour, new Segment(1, new double[] {lastX, coords[0]}, new double[] {lastY, coords[1]}));
+				lastX = coords[0];
+				lastY = coords[1];
+				break;
+			case PathIterator.SEG_QUADTO:
+				if (contour == null) break;
+				addSegment(contour,
+					new Segment(2, new double[] {lastX, coords[0], coords[2]}, new double[] {lastY, coords[1], coords[3]}));
+				lastX = coords[2];
+				lastY = coords[3];
+				break;
+			case PathIterator.SEG_CUBICTO:
+				if (contour == null) break;
+				addSegment(contour, new Segment(3, new double[] {lastX, coords[0], coords[2], coords[4]},
+					new double[] {lastY, coords[1], coords[3], coords[5]}));
+				lastX = coords[4];
+				lastY = coords[5];
+				break;
+			case PathIterator.SEG_CLOSE:
+				closeContour(contour, lastX, lastY, startX, startY);
+				contour = null;
+				lastX = startX;
+				lastY = startY;
+				break;
+			}
+		}
+		closeContour(contour, lastX, lastY, startX, startY);
+	}
+
+	/** Shapes are filled as if every contour was closed, so an open contour gets the implied closing line. */
+	private void closeContour (ArrayList<Segment> contour, double lastX, double lastY, double startX, double startY) {
+		if (contour == null) return;
+		if (lastX != startX || lastY != startY)
+			addSegment(contour, new Segment(1, new double[] {lastX, startX}, new double[] {lastY, startY}));
+		if (!contour.isEmpty()) contours.add(contour);
+	}
+
+	/** Replaces a contour, for example with one whose segments were split, and updates {@link #segments}. Must be called before
+	 * {@link #buildGrid}. */
+	void setContour (int index, ArrayList<Segment> contour) {
+		contours.set(index, contour);
+		segments.clear();
+		for (ArrayList<Segment> c : contours)
+			segments.addAll(c);
+	}
+
+	private void addSegment (ArrayList<Segment> contour, Segment segment) {
+		contour.add(segment);
+		segments.add(segment);
+	}
+
+	private void readEdges (PathIterator iterator) {
+		double[] coords = new double[6];
+		double startX = 0, startY = 0, lastX = 0, lastY = 0;
+		for (; !iterator.isDone(); iterator.next()) {
+			switch (iterator.currentSegment(coords)) {
+			case PathIterator.SEG_MOVETO:
+				addEdge(lastX, lastY, startX, startY);
+				startX = lastX = coords[0];
+				startY = lastY = coords[1];
+				break;
+			case PathIterator.SEG_LINETO:
+				addEdge(lastX, lastY, coords[0], coords[1]);
+				lastX = coords[0];
+				lastY = coords[1];
+				break;
+			case PathIterator.SEG_CLOSE:
+				addEdge(lastX, lastY, startX, startY);
+				lastX = startX;
+				lastY = startY;
+				break;
+			}
+		}
+		addEdge(lastX, lastY, startX, startY);
+	}
+
+	private void addEdge (double x0, double y0, double x1, double y1) {
+		if (y0 == y1) return; // Horizontal edges never cross a scanline.
+		if ((edgeCount + 1) * 4 > edges.length) {
+			double[] newEdges = new double[edges.length * 2];
+			System.arraycopy(edges, 0, newEdges, 0, edgeCount * 4);
+			edges = newEdges;
+		}
+		int i = edgeCount++ * 4;
+		edges[i] = x0;
+		edges[i + 1] = y0;
+		edges[i + 2] = x1;
+		edges[i + 3] = y1;
+	}
+
+	/** Determines which pixel centers {@code (x + 0.5, y)} of a row are inside the shape, using the shape's winding rule.
+	 * @param crossings scratch space, grown if needed; pass the returned array to the next call
+	 * @return the scratch space */
+	double[] fillRow (double y, int width, boolean[] inside, double[] crossings) {
+		if (crossings == null || crossings.length < edgeCount * 2) crossings = new double[Math.max(16, edgeCount * 2)];
+		// Crossings are stored as x, direction pairs and sorted by x.
+		int count = 0;
+		for (int i = 0, n = edgeCount * 4; i < n; i += 4) {
+			double y0 = edges[i + 1], y1 = edges[i + 3];
+			double direction;
+			// Half open, so a scanline through a vertex is only counted once.
+			if (y0 <= y && y < y1)
+				direction = 1;
+			else if (y1 <= y && y < y0)
+				direction = -1;
+			else
+				continue;
+			double x = edges[i] + (y - y0) * (edges[i + 2] - edges[i]) / (y1 - y0);
+			int j = count * 2;
+			while (j > 0 && crossings[j - 2] > x) {
+				crossings[j] = crossings[j - 2];
+				crossings[j + 1] = crossings[j - 1];
+				j -= 2;
+			}
+			crossings[j] = x;
+			crossings[j + 1] = direction;
+			count++;
+		}
+
+		int winding = 0, crossed = 0;
+		for (int x = 0, k = 0; x < width; x++) {
+			double centerX = x + 0.5;
+			while (k < count && crossings[k * 2] < centerX) {
+				winding += (int)crossings[k * 2 + 1];
+				crossed++;
+				k++;
+			}
+			inside[x] = evenOdd ? (crossed & 1) != 0 : winding != 0;
+		}
+		return crossings;
+	}
+
+	/** Buckets the segments into a grid of square cells covering {@code width * height}. Segments outside that area are put in
+	 * the nearest cells, which is still correct for points inside the area. */
+	void buildGrid (double cellSize, int width, int height) {
+		this.cellSize = cellSize;
+		columns = Math.max(1, (int)Math.ceil(width / cellSize));
+		rows = Math.max(1, (int)Math.ceil(height / cellSize));
+		int[] counts = new int[columns * rows];
+		for (int pass = 0; pass < 2; pass++) {
+			for (int s = 0, n = segments.size(); s < n; s++) {
+				Segment segment = segments.get(s);
+				int startColumn = column(segment.minX), endColumn = column(segment.maxX);
+				int startRow = row(segment.minY), endRow = row(segment.maxY);
+				for (int row = startRow; row <= endRow; row++) {
+					for (int column = startColumn; column <= endColumn; column++) {
+						int cell = row * columns + column;
+						if (pass == 0)
+							counts[cell]++;
+						else
+							cells[cell][--counts[cell]] = s;
+					}
+				}
+			}
+			if (pass == 0) {
+				cells = new int[columns * rows][];
+				for (int i = 0; i < counts.length; i++)
+					cells[i] = new int[counts[i]];
+			}
+		}
+	}
+
+	/** Returns the distance from the point to the nearest segment, or {@code maxDistance} if there is none closer. Requires
+	 * {@link #buildGrid}.
+	 * @param roots scratch space for at least three values */
+	double distance (double px, double py, double maxDistance, double[] roots) {
+		double bestSquared = maxDistance * maxDistance;
+		int startColumn = column(px - maxDistance), endColumn = column(px + maxDistance);
+		int startRow = row(py - maxDistance), endRow = row(py + maxDistance);
+		for (int row = startRow; row <= endRow; row++) {
+			for (int column = startColumn; column <= endColumn; column++) {
+				for (int s : cells[row * columns + column]) {
+					Segment segment = segments.get(s);
+					// Skip segments whose bounds are already farther away than the best so far.
+					double dx = Math.max(0, Math.max(segment.minX - px, px - segment.maxX));
+					double dy = Math.max(0, Math.max(segment.minY - py, py - segment.maxY));
+					if (dx * dx + dy * dy >= bestSquared) continue;
+					bestSquared = Math.min(bestSquared, segment.squaredDistance(px, py, roots));
+				}
+			}
+		}
+		return Math.sqrt(bestSquared);
+	}
+
+	/** Returns the indices into {@link #segments} of the segments that touch a grid cell. Requires {@link #buildGrid}. */
+	int[] cell (int column, int row) {
+		return cells[row * columns + column];
+	}
+
+	/** Returns the grid column containing x, clamped to the grid. */
+	int column (double x) {
+		return Math.max(0, Math.min(columns - 1, (int)Math.floor(x / cellSize)));
+	}
+
+	/** Returns the grid row containing y, clamped to the grid. */
+	int row (double y) {
+		return Math.max(0, Math.min(rows - 1, (int)Math.floor(y / cellSize)));
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.distancefield;
+
+/** A line, quadratic or cubic Bézier segment of an {@link Outline}, with the math to find the nearest point on it.
+ * @author Yi An */
+final class Segment {
+	/** 1 for a line, 2 for a quadratic and 3 for a cubic segment. */
+	final int degree;
+	/** The control points, {@code degree + 1} of them. */
+	final double[] x, y;
+	/** The bounding box of the control points, which contains the whole segment. */
+	final double minX, minY, maxX, maxY;
+	/** The channels this segment contributes to in a multi-channel distance field, a mask of red 1, green 2 and blue 4. */
+	int color = 7;
+	/** 1 if the inside of the shape is to the left of this segment (the side of (-dy, dx)), -1 if to the right. */
+	int side = 1;
+
+	Segment (int degree, double[] x, double[] y) {
+		this.degree = degree;
+		this.x = x;
+		this.y = y;
+		double minX = x[0], minY = y[0], maxX = x[0], maxY = y[0];
+		for (int i = 1; i <= degree; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/** Returns the x coordinate of the point at parameter {@code t}. */
+	double pointX (double t) {
+		return evaluate(x, t);
+	}
+
+	/** Returns the y coordinate of the point at parameter {@code t}. */
+	double pointY (double t) {
+		return evaluate(y, t);
+	}
+
+	/** Returns the x component of the (unnormalized) tangent at parameter {@code t}. */
+	double directionX (double t) {
+		return derivative(x, t);
+	}
+
+	/** Returns the y component of the (unnormalized) tangent at parameter {@code t}. */
+	double directionY (double t) {
+		return derivative(y, t);
+	}
+
+	/** Returns the squared distance from the point to this segment.
+	 * @param roots scratch space for at least three values */
+	double squaredDistance (double px, double py, double[] roots) {
+		double t = nearest(px, py, roots);
+		double dx = pointX(t) - px, dy = pointY(t) - py;
+		return dx * dx + dy * dy;
+	}
+
+	/** Returns the parameter in [0, 1] of the point on this segment that is nearest to the given point.
+	 * @param roots scratch space for at least three values */
+	double nearest (double px, double py, double[] roots) {
+		switch (degree) {
+		case 1:
+			return nearestOnLine(px, py);
+		case 2:
+			return nearestOnQuadratic(px, py, roots);
+		default:
+			return nearestOnCubic(px, py);
+		}
+	}
+
+	private double nearestOnLine (double px, double py) {
+		double dx = x[1] - x[0], dy = y[1] - y[0];
+		double lengthSquared = dx * dx + dy * dy;
+		if (lengthSquared == 0) return 0;
+		double t = ((px - x[0]) * dx + (py - y[0]) * dy) / lengthSquared;
+		return Math.max(0, Math.min(1, t));
+	}
+
+	/** Solves d/dt |B(t) - p|² = 0, which for a quadratic curve is a cubic equation in t. */
+	private double nearestOnQuadratic (double px, double py, double[] roots) {
+		double qaX = x[0] - px, qaY = y[0] - py;
+		double abX = x[1] - x[0], abY = y[1] - y[0];
+		double brX = x[2] - x[1] - abX, brY = y[2] - y[1] - abY;
+		int count = solveCubic(roots, brX * brX + brY * brY, 3 * (abX * brX + abY * brY),
+			2 * (abX * abX + abY * abY) + qaX * brX + qaY * brY, qaX * abX + qaY * abY);
+		double best = squaredDistanceAt(0, px, py) <= squaredDistanceAt(1, px, py) ? 0 : 1;
+		double bestDistance = squaredDistanceAt(best, px, py);
+		for (int i = 0; i < count; i++) {
+			double t = roots[i];
+			if (t <= 0 || t >= 1) continue;
+			double distance = squaredDistanceAt(t, px, py);
+			if (distance < bestDistance) {
+				best = t;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	/** The equation for a cubic curve is of fifth degree, so Newton's method is started from a few evenly spaced points. */
+	private double nearestOnCubic (double px, double py) {
+		double best = squaredDistanceAt(0, px, py) <= squaredDistanceAt(1, px, py) ? 0 : 1;
+		double bestDistance = squaredDistanceAt(best, px, py);
+		for (int start = 0; start <= CUBIC_SEARCH_STARTS; start++) {
+			double t = (double)start / CUBIC_SEARCH_STARTS;
+			for (int step = 0; step < CUBIC_SEARCH_STEPS; step++) {
+				double qx = pointX(t) - px, qy = pointY(t) - py;
+				double d1x = derivative(x, t), d1y = derivative(y, t);
+				double d2x = secondDerivative(x, t), d2y = secondDerivative(y, t);
+				double denominator = d1x * d1x + d1y * d1y + qx * d2x + qy * d2y;
+				if (denominator == 0) break;
+				t -= (qx * d1x + qy * d1y) / denominator;
+				if (t <= 0 || t >= 1) break;
+			}
+			if (t <= 0 || t >= 1) continue;
+			double distance = squaredDistanceAt(t, px, py);
+			if (distance < bestDistance) {
+				best = t;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	/** Splits this segment at t = 1/3 and t = 2/3 into three segments of the same degree. */
+	Segment[] splitInThirds () {
+		Segment[] first = split(1 / 3.0);
+		Segment[] rest = first[1].split(0.5);
+		return new Segment[] {first[0], rest[0], rest[1]};
+	}
+
+	/** Splits this segment at parameter {@code t} using de Casteljau's algorithm. */
+	private Segment[] split (double t) {
+		double[] leftX = new double[degree + 1], rightX = new double[degree + 1];
+		double[] leftY = new double[degree + 1], rightY = new double[degree + 1];
+		double[] workX = x.clone(), workY = y.clone();
+		for (int level = 0; level <= degree; level++) {
+			leftX[level] = workX[0];
+			leftY[level] = workY[0];
+			rightX[degree - level] = workX[degree - level];
+			rightY[degree - level] = workY[degree - level];
+			for (int i = 0; i < degree - level; i++) {
+				workX[i] += (workX[i + 1] - workX[i]) * t;
+				workY[i] += (workY[i + 1] - workY[i]) * t;
+			}
+		}
+		Segment left = new Segment(degree, leftX, leftY), right = new Segment(degree, rightX, rightY);
+		left.side = right.side = side;
+		return new Segment[] {left, right};
+	}
+
+	private double squaredDistanceAt (double t, double px, double py) {
+		double dx = pointX(t) - px, dy = pointY(t) - py;
+		return dx * dx + dy * dy;
+	}
+
+	private double evaluate (double[] p, double t) {
+		double s = 1 - t;
+		switch (degree) {
+		case 1:
+			return s * p[0] + t * p[1];
+		case 2:
+			return s * s * p[0] + 2 * s * t * p[1] + t * t * p[2];
+		default:
+			return s * s * s * p[0] + 3 * s * s * t * p[1] + 3 * s * t * t * p[2] + t * t * t * p[3];
+		}
+	}
+
+	private double derivative (double[] p, double t) {
+		double s = 1 - t;
+		switch (degree) {
+		case 1:
+			return p[1] - p[0];
+		case 2:
+			return 2 * (s * (p[1] - p[0]) + t * (p[2] - p[1]));
+		default:
+			return 3 * (s * s * (p[1] - p[0]) + 2 * s * t * (p[2] - p[1]) + t * t * (p[3] - p[2]));
+		}
+	}
+
+	private double secondDerivative (double[] p, double t) {
+		switch (degree) {
+		case 1:
+			return 0;
+		case 2:
+			return 2 * (p[2] - 2 * p[1] + p[0]);
+		default:
+			return 6 * ((1 - t) * (p[2] - 2 * p[1] + p[0]) + t * (p[3] - 2 * p[2] + p[1]));
+		}
+	}
+
+	static private final int CUBIC_SEARCH_STARTS = 8;
+	static private final int CUBIC_SEARCH_STEPS = 6;
+	static private final double EPSILON = 1e-14;
+
+	/** Finds the real roots of {@code a x² + b x + c}.
+	 * @return the number of roots stored in {@code roots} */
+	static int solveQuadratic (double[] roots, double a, double b, double c) {
+		if (Math.abs(a) < EPSILON) {
+			if (Math.abs(b) < EPSILON) return 0;
+			roots[0] = -c / b;
+			return 1;
+		}
+		double discriminant = b * b - 4 * a * c;
+		if (discriminant > 0) {
+			discriminant = Math.sqrt(discriminant);
+			roots[0] = (-b + discriminant) / (2 * a);
+			roots[1] = (-b - discriminant) / (2 * a);
+			return 2;
+		} else if (discriminant == 0) {
+			roots[0] = -b / (2 * a);
+			return 1;
+		}
+		return 0;
+	}
+
+	/** Finds the real roots of {@code a x³ + b x² + c x + d}.
+	 * @return the number of roots stored in {@code roots} */
+	static int solveCubic (double[] roots, double a, double b, double c, double d) {
+		if (Math.abs(a) < EPSILON) return solveQuadratic(roots, b, c, d);
+		b /= a;
+		c /= a;
+		d /= a;
+		double b2 = b * b;
+		double q = (b2 - 3 * c) / 9;
+		double r = (b * (2 * b2 - 9 * c) + 27 * d) / 54;
+		double r2 = r * r, q3 = q * q * q;
+		b /= 3;
+		if (r2 < q3) {
+			double t = Math.acos(Math.max(-1, Math.min(1, r / Math.sqrt(q3))));
+			q = -2 * Math.sqrt(q);
+			roots[0] = q * Math.cos(t / 3) - b;
+			roots[1] = q * Math.cos((t + 2 * Math.PI) / 3) - b;
+			roots[2] = q * Math.cos((t - 2 * Math.PI) / 3) - b;
+			return 3;
+		}
+		double u = -Math.cbrt(Math.abs(r) + Math.sqrt(r2 - q3));
+		if (r < 0) u = -u;
+		double v = u == 0 ? 0 : q / u;
+		roots[0] = (u + v) - b;
+		roots[1] = -0.5 * (u + v) - b;
+		// The second and third roots are complex unless their imaginary part vanishes.
+		return Math.abs(0.5 * Math.sqrt(3) * (u - v)) < EPSILON ? 2 : 1;
+	}
+}
@@ -55,7 +55,17 @@ public class Glyph {
 	private Shape shape;
 	float u, v, u2, v2;
 	private int xOffset, xAdvance;
-	Texture texture;
+	/** The part of the glyph's image that isn't transparent, or a width of -1 if the image wasn't trimmed. */
+	private short trimX, trimY, trimWidth = -1, trimHeight;
+	private int channel;
+	private boolean rotated;
+	GlyphPage page;
+	/** The texture set by {@link #setTexture}, which is used instead of the page's, or null. */
+	private Texture texture;
+	/** The image rendered ahead by {@link GlyphPage#loadGlyphs}, trimmed if the glyph is, until the glyph is loaded, else null. */
+	int[] image;
+	/** The GL pixel format of {@link #image}. */
+	int imageFormat;
 
 	Glyph (int codePoint, Rectangle bounds, GlyphVector vector, int index, UnicodeFont unicodeFont) {
 		this.codePoint = codePoint;
@@ -104,7 +114,8 @@ public class Glyph {
 			xAdvance = (int)(metrics.getAdvanceX() + unicodeFont.getPaddingAdvanceX() + unicodeFont.getPaddingLeft()
 				+ unicodeFont.getPaddingRight());
 
-			shape = vector.getGlyphOutline(index, -bounds.x + unicodeFont.getPaddingLeft(), -bounds.y + unicodeFont.getPaddingTop());
+			shape = new GlyphOutline(
+				vector.getGlyphOutline(index, -bounds.x + unicodeFont.getPaddingLeft(), -bounds.y + unicodeFont.getPaddingTop()));
 
 			isMissing = !unicodeFont.getFont().canDisplay((char)codePoint);
 		}
@@ -130,6 +141,58 @@ public class Glyph {
 		return height;
 	}
 
+	/** Returns true if the transparent borders were cut off the glyph's image, see {@link UnicodeFont#setTrimGlyphs(boolean)}. */
+	public boolean isTrimmed () {
+		return trimWidth != -1;
+	}
+
+	void setTrim (int x, int y, int width, int height) {
+		trimX = (short)x;
+		trimY = (short)y;
+		trimWidth = (short)width;
+		trimHeight = (short)height;
+	}
+
+	/** The distance from the left of the glyph's image to the part stored on the glyph page. */
+	public int getTrimX () {
+		return trimX;
+	}
+
+	/** The distance from the top of the glyph's image to the part stored on the glyph page. */
+	public int getTrimY () {
+		return trimY;
+	}
+
+	/** The width of the part of the glyph's image stored on the glyph page. */
+	public int getTrimmedWidth () {
+		return trimWidth == -1 ? width : trimWidth;
+	}
+
+	/** The height of the part of the glyph's image stored on the glyph page. */
+	public int getTrimmedHeight () {
+		return trimWidth == -1 ? height : trimHeight;
+	}
+
+	/** The BMFont channel bit of the texture channel the glyph is stored in: 1 for blue, 2 for green, 4 for red and 8 for alpha,
+	 * or 0 if the glyph uses all channels. See {@link UnicodeFont#isChannelPacked()}. */
+	public int getChannel () {
+		return channel;
+	}
+
+	void setChannel (int channel) {
+		this.channel = channel;
+	}
+
+	/** Returns true if the glyph is stored on its glyph page turned 90° counterclockwise, see
+	 * {@link UnicodeFont#setRotateGlyphs(boolean)}. Its texture coordinates then span the turned rectangle. */
+	public boolean isRotated () {
+		return rotated;
+	}
+
+	void setRotated (boolean rotated) {
+		this.rotated = rotated;
+	}
+
 	/** The shape to use to draw this glyph. This is set to null after the glyph is stored in a GlyphPage. */
 	public Shape getShape () {
 		return shape;
@@ -139,6 +202,19 @@ public class Glyph {
 		this.shape = shape;
 	}
 
+	void setPage (GlyphPage page, float u, float v, float u2, float v2) {
+		this.page = page;
+		texture = null;
+		this.u = u;
+		this.v = v;
+		this.u2 = u2;
+		this.v2 = v2;
+	}
+
+	/** Sets a texture to draw the glyph from instead of its page's, until the glyph is stored on a page again.
+	 * @deprecated Glyphs are stored on a {@link GlyphPage}, which creates its texture when it is first needed, see
+	 *             {@link #getPage()}. */
+	@Deprecated
 	public void setTexture (Texture texture, float u, float v, float u2, float v2) {
 		this.texture = texture;
 		this.u = u;
@@ -147,8 +223,15 @@ public class Glyph {
 		this.v2 = v2;
 	}
 
+	/** Returns the page the glyph's image is stored on, or null if it has none. */
+	public GlyphPage getPage () {
+		return page;
+	}
+
+	/** Returns the texture of the glyph's page, see {@link GlyphPage#getTexture()}, or null if it has none. */
 	public Texture getTexture () {
-		return texture;
+		if (texture != null) return texture;
+		return page == null ? null : page.getTexture();
 	}
 
 	public float getU () {
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import com.badlogic.gdx.utils.LongMap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/** Finds the glyphs of a font whose images are already stored on one of its glyph pages, so a glyph that looks the same as
+ * another one, like a Latin A and a Cyrillic А, shares its place on the page. Images are looked up by a 64 bit digest and then
+ * compared pixel by pixel with the image stored on the page, so two images with the same digest are never mistaken for each
+ * other. Only the digest and where the image is stored are kept.
+ * @author Yi An */
+class GlyphIndex {
+	static private final long PRIME1 = 0x9E3779B185EBCA87L;
+	static private final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+	static private final long PRIME3 = 0x165667B19E3779F9L;
+	static private final long PRIME4 = 0x85EBCA77C2B2AE63L;
+	static private final long PRIME5 = 0x27D4EB2F165667C5L;
+
+	private final LongMap<Entry> entries = new LongMap<>();
+
+	/** Returns the entry of a stored glyph with the same image, or null. Nothing is allocated.
+	 * @param pixels The image's pixels row by row, from index 0.
+	 * @param format The GL pixel format of the image. */
+	Entry find (long digest, IntBuffer pixels, int width, int height, int format) {
+		for (Entry entry = entries.get(digest); entry != null; entry = entry.next) {
+			// The same bytes can be an image of another shape.
+			if (entry.width == width && entry.height == height && entry.page.matches(entry, pixels, format)) return entry;
+		}
+		return null;
+	}
+
+	/** Adds a glyph whose image was stored on a page.
+	 * @param x The left of the image on the page.
+	 * @param y The top of the image on the page.
+	 * @param width The width of the image, before it is turned if the glyph is {@link Glyph#isRotated() rotated}.
+	 * @param height The height of the image, before it is turned. */
+	void add (long digest, int x, int y, int width, int height, Glyph glyph, GlyphPage page) {
+		Entry entry = new Entry(x, y, width, height, glyph, page);
+		entry.next = entries.get(digest);
+		entries.put(digest, entry);
+	}
+
+	/** Returns the xxHash64 digest, with seed 0, of the bytes from the buffer's position to its limit. The buffer's position is
+	 * left unchanged and nothing is allocated.
+	 * <p>
+	 * The algorithm is described at <a href="https://github.com/Cyan4973/xxHash">https://github.com/Cyan4973/xxHash</a> */
+	static long digest (ByteBuffer bytes) {
+		boolean swap = bytes.order() != ByteOrder.LITTLE_ENDIAN;
+		int i = bytes.position(), end = bytes.limit();
+		long hash;
+		if (end - i >= 32) {
+			long v1 = PRIME1 + PRIME2, v2 = PRIME2, v3 = 0, v4 = -PRIME1;
+			for (int limit = end - 32; i <= limit; i += 32) {
+				v1 = round(v1, getLong(bytes, i, swap));
+				v2 = round(v2, getLong(bytes, i + 8, swap));
+				v3 = round(v3, getLong(bytes, i + 16, swap));
+				v4 = round(v4, getLong(bytes, i + 24, swap));
+			}
+			hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			hash = mergeRound(hash, v1);
+			hash = mergeRound(hash, v2);
+			hash = mergeRound(hash, v3);
+			hash = mergeRound(hash, v4);
+		} else
+			hash = PRIME5;
+		hash += end - bytes.position();
+
+		for (; i + 8 <= end; i += 8)
+			hash = Long.rotateLeft(hash ^ round(0, getLong(bytes, i, swap)), 27) * PRIME1 + PRIME4;
+		if (i + 4 <= end) {
+			int value = bytes.getInt(i);
+			if (swap) value = Integer.reverseBytes(value);
+			hash = Long.rotateLeft(hash ^ (value & 0xFFFFFFFFL) * PRIME1, 23) * PRIME2 + PRIME3;
+			i += 4;
+		}
+		for (; i < end; i++)
+			hash = Long.rotateLeft(hash ^ (bytes.get(i) & 0xFFL) * PRIME5, 11) * PRIME1;
+
+		hash ^= hash >>> 33;
+		hash *= PRIME2;
+		hash ^= hash >>> 29;
+		hash *= PRIME3;
+		hash ^= hash >>> 32;
+		return hash;
+	}
+
+	static private long getLong (ByteBuffer bytes, int index, boolean swap) {
+		long value = bytes.getLong(index);
+		return swap ? Long.reverseBytes(value) : value;
+	}
+
+	static private long round (long accumulator, long input) {
+		return Long.rotateLeft(accumulator + input * PRIME2, 31) * PRIME1;
+	}
+
+	static private long mergeRound (long hash, long value) {
+		return (hash ^ round(0, value)) * PRIME1 + PRIME4;
+	}
+
+	static class Entry {
+		/** Where the image is stored on the page, see {@link #add}. */
+		final int x, y, width, height;
+		final Glyph glyph;
+		final GlyphPage page;
+		/** Another entry with the same digest, or null. */
+		Entry next;
+
+		Entry (int x, int y, int width, int height, Glyph glyph, GlyphPage page) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.glyph = glyph;
+			this.page = page;
+		}
+	}
+}
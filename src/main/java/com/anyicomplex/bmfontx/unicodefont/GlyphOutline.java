@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.Arrays;
+
+/** The outline of a glyph, which hands out the same {@link PathIterator} again for an identity transform once the last one was
+ * iterated to its end, so filling the glyph for every effect and every trial doesn't create garbage. A caller that stops early
+ * simply gets a new iterator the next time.
+ * @author Yi An */
+final class GlyphOutline implements Shape {
+	private final Path2D.Float path;
+	private final byte[] types;
+	private final float[] coords;
+	private Iterator iterator;
+
+	GlyphOutline (Shape shape) {
+		path = new Path2D.Float(shape);
+		byte[] types = new byte[16];
+		float[] coords = new float[64];
+		int typeCount = 0, coordCount = 0;
+		float[] segment = new float[6];
+		for (PathIterator iter = path.getPathIterator(null); !iter.isDone(); iter.next()) {
+			int type = iter.currentSegment(segment);
+			if (typeCount == types.length) types = Arrays.copyOf(types, typeCount * 2);
+			if (coordCount + 6 > coords.length) coords = Arrays.copyOf(coords, coords.length * 2);
+			types[typeCount++] = (byte)type;
+			for (int i = 0, n = coordCount(type); i < n; i++)
+				coords[coordCount++] = segment[i];
+		}
+		this.types = Arrays.copyOf(types, typeCount);
+		this.coords = Arrays.copyOf(coords, coordCount);
+	}
+
+	static int coordCount (int type) {
+		switch (type) {
+		case PathIterator.SEG_MOVETO:
+		case PathIterator.SEG_LINETO:
+			return 2;
+		case PathIterator.SEG_QUADTO:
+			return 4;
+		case PathIterator.SEG_CUBICTO:
+			return 6;
+		default:
+			return 0;
+		}
+	}
+
+	public synchronized PathIterator getPathIterator (AffineTransform at) {
+		if (at != null && !at.isIdentity()) return path.getPathIterator(at);
+		if (iterator == null || !iterator.isDone())
+			iterator = new Iterator();
+		else
+			iterator.reset();
+		return iterator;
+	}
+
+	public PathIterator getPathIterator (AffineTransform at, double flatness) {
+		return path.getPathIterator(at, flatness);
+	}
+
+	public Rectangle getBounds () {
+		return path.getBounds();
+	}
+
+	public Rectangle2D getBounds2D () {
+		return path.getBounds2D();
+	}
+
+	public boolean contains (double x, double y) {
+		return path.contains(x, y);
+	}
+
+	public boolean contains (Point2D p) {
+		return path.contains(p);
+	}
+
+	public boolean intersects (double x, double y, double w, double h) {
+		return path.intersects(x, y, w, h);
+	}
+
+	public boolean intersects (Rectangle2D r) {
+		return path.intersects(r);
+	}
+
+	public boolean contains (double x, double y, double w, double h) {
+		return path.contains(x, y, w, h);
+	}
+
+	public boolean contains (Rectangle2D r) {
+		return path.contains(r);
+	}
+
+	private class Iterator implements PathIterator {
+		private int typeIndex, coordIndex;
+
+		void reset () {
+			typeIndex = 0;
+			coordIndex = 0;
+		}
+
+		public int getWindingRule () {
+			return path.getWindingRule();
+		}
+
+		public boolean isDone () {
+			return typeIndex >= types.length;
+		}
+
+		public void next () {
+			coordIndex += coordCount(types[typeIndex++]);
+		}
+
+		public int currentSegment (float[] coords) {
+			int type = types[typeIndex];
+			System.arraycopy(GlyphOutline.this.coords, coordIndex, coords, 0, coordCount(type));
+			return type;
+		}
+
+		public int currentSegment (double[] coords) {
+			int type = types[typeIndex];
+			for (int i = 0, n = coordCount(type); i < n; i++)
+				coords[i] = GlyphOutline.this.coords[coordIndex + i];
+			return type;
+		}
+	}
+}
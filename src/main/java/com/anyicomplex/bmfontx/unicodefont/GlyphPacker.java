@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import java.awt.*;
+
+/** Decides where the glyphs of a {@link GlyphPage} go. A packer is asked for a position first, and only told to claim it once the
+ * glyph is actually stored there, because a glyph that turns out to be a duplicate of another takes no room.
+ * @author Yi An */
+public interface GlyphPacker {
+	/** Finds room for a rectangle of the given size without claiming it. A packer that allows rotation may turn the rectangle 90°
+	 * if it fits better that way, and then sets the position's width to the height and the height to the width.
+	 * @param position Set to the position and size of the rectangle if there is room.
+	 * @return false if the rectangle doesn't fit. */
+	boolean find (int width, int height, Rectangle position);
+
+	/** Claims the room found by the last call to {@link #find(int, int, Rectangle)}.
+	 * @param position The position found. */
+	void place (Rectangle position);
+}
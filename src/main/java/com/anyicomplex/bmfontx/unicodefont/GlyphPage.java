@@ -38,39 +38,59 @@
 package com.anyicomplex.bmfontx.unicodefont;
 
 import com.anyicomplex.bmfontx.unicodefont.effects.ColorEffect;
+import com.anyicomplex.bmfontx.unicodefont.effects.DistanceFieldEffect;
 import com.anyicomplex.bmfontx.unicodefont.effects.Effect;
-import com.badlogic.gdx.Gdx;
+import com.anyicomplex.bmfontx.unicodefont.effects.GradientEffect;
+import com.anyicomplex.bmfontx.unicodefont.effects.MultiChannelDistanceFieldEffect;
+import com.anyicomplex.bmfontx.unicodefont.effects.OutlineEffect;
+import com.anyicomplex.bmfontx.unicodefont.effects.ShadowEffect;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL12;
 
 import java.awt.*;
 import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
 import java.awt.image.BufferedImage;
-import java.awt.image.WritableRaster;
-import java.math.BigInteger;
+import java.awt.image.DataBufferInt;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Iterator;
-
-/** Stores a number of glyphs on a single texture.
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Stores a number of glyphs on a single texture. The glyphs' pixels are kept in memory and only uploaded to the texture when it
+ * is used, so glyphs can be loaded and saved without an OpenGL context.
  * @author Nathan Sweet
  * @modifier Yi An */
 public class GlyphPage {
 	private final UnicodeFont unicodeFont;
 	private final int pageWidth, pageHeight;
-	private final Texture texture;
+	private final PagePixels pagePixels;
+	/** Created by {@link #getTexture()}, or null. */
+	private Texture texture;
 	private final Array<Glyph> pageGlyphs = new Array<>(32);
-	private final Array<String> hashes = new Array<>(32);
-	Array<Row> rows = new Array<>();
+	/** One packer per channel glyphs are stored in, see {@link UnicodeFont#isChannelPacked()}. */
+	private final GlyphPacker[] packers;
+	private final Rectangle position = new Rectangle();
+	/** Receives the room found for glyphs while choosing which to render ahead, see {@link #renderAhead}. */
+	private final Rectangle aheadPosition = new Rectangle();
 
 	/** @param pageWidth The width of the backing texture.
 	 * @param pageHeight The height of the backing texture. */
@@ -79,8 +99,36 @@ public class GlyphPage {
 		this.pageWidth = pageWidth;
 		this.pageHeight = pageHeight;
 
-		texture = new Texture(pageWidth, pageHeight, Format.RGBA8888);
-		rows.add(new Row());
+		pagePixels = new PagePixels(pageWidth, pageHeight);
+		packers = new GlyphPacker[unicodeFont.isChannelPacked() ? CHANNEL_MASKS.length : 1];
+		for (int i = 0; i < packers.length; i++)
+			packers[i] = createPacker(unicodeFont.getChosenPackingStrategy(), pageWidth, pageHeight, unicodeFont.isRotateGlyphs());
+	}
+
+	/** Finds room for a glyph with the packer of the first channel that has room, see {@link GlyphPacker#find}.
+	 * @return The index of that channel, or -1 if there is no room. */
+	static private int find (GlyphPacker[] packers, int width, int height, Rectangle position) {
+		for (int i = 0; i < packers.length; i++)
+			if (packers[i].find(width, height, position)) return i;
+		return -1;
+	}
+
+	/** Returns a new packer that places glyphs with the given strategy.
+	 * @param allowRotation If true, the packer may turn glyphs 90°. */
+	static GlyphPacker createPacker (UnicodeFont.PackingStrategy strategy, int pageWidth, int pageHeight,
+		boolean allowRotation) {
+		switch (strategy) {
+		case Skyline:
+			return new SkylinePacker(pageWidth, pageHeight, allowRotation);
+		case MaxRectsBestShortSideFit:
+			return new MaxRectsPacker(pageWidth, pageHeight, MaxRectsPacker.Heuristic.BestShortSideFit, allowRotation);
+		case MaxRectsBestAreaFit:
+			return new MaxRectsPacker(pageWidth, pageHeight, MaxRectsPacker.Heuristic.BestAreaFit, allowRotation);
+		case MaxRectsContactPoint:
+			return new MaxRectsPacker(pageWidth, pageHeight, MaxRectsPacker.Heuristic.ContactPoint, allowRotation);
+		default:
+			return new ShelfPacker(pageWidth, pageHeight, allowRotation);
+		}
 	}
 
 	/** Loads glyphs to the backing texture and sets the image on each loaded glyph. Loaded glyphs are removed from the list.
@@ -92,66 +140,277 @@ public class GlyphPage {
 	 *           glyphs.
 	 * @return The number of glyphs that were actually loaded. */
 	int loadGlyphs (Array<Glyph> glyphs, int maxGlyphsToLoad) {
-		GL11.glColor4f(1, 1, 1, 1);
-		texture.bind();
+		// The font's gutter is reserved on every side of a glyph.
+		int border = unicodeFont.getGutter();
+		if (pageWidth <= border * 2 || pageHeight <= border * 2) {
+			throw new GdxRuntimeException("A gutter of " + border + " leaves no room for glyphs on a " + pageWidth + "x" + pageHeight
+				+ " page.");
+		}
+		boolean trim = unicodeFont.isTrimGlyphs();
+
+		// Glyphs before this index were rendered ahead, if they could be.
+		int renderedEnd = 0;
+		int renderWindow = getRenderThreadCount(unicodeFont) * RENDER_AHEAD_PER_THREAD;
+		if (renderWindow < 2) renderWindow = 0;
 
 		int loadedCount = 0;
-		for (Iterator<Glyph> iter = glyphs.iterator(); iter.hasNext();) {
-			Glyph glyph = iter.next();
-			int width = Math.min(MAX_GLYPH_SIZE, glyph.getWidth());
-			int height = Math.min(MAX_GLYPH_SIZE, glyph.getHeight());
-			if (width == 0 || height == 0)
+		for (int i = 0; i < glyphs.size; i++) {
+			if (i == renderedEnd && renderWindow > 0) {
+				int count = renderWindow;
+				if (maxGlyphsToLoad != -1) count = Math.min(count, maxGlyphsToLoad - loadedCount);
+				renderedEnd = Math.min(glyphs.size, i + Math.max(1, count));
+				renderAhead(glyphs, i, renderedEnd, border);
+			}
+			Glyph glyph = glyphs.get(i);
+			int glyphWidth = getImageWidth(glyph, border);
+			int glyphHeight = getImageHeight(glyph, border);
+			Scratch scratch = getScratch(unicodeFont, glyphWidth, glyphHeight);
+			int format = -1;
+			if (trim && glyphWidth != 0 && glyphHeight != 0 && !glyph.isTrimmed()) {
+				// The glyph's pixels are only known once it is rendered. They are kept in case it fits on this page.
+				format = rasterizeGlyph(unicodeFont, scratch, glyph, glyphWidth, glyphHeight);
+				trimGlyph(scratch, glyph, glyphWidth, glyphHeight);
+			}
+			int imageWidth = glyphWidth, imageHeight = glyphHeight;
+			if (glyph.isTrimmed()) {
+				glyphWidth = glyph.getTrimmedWidth();
+				glyphHeight = glyph.getTrimmedHeight();
+			}
+			int width = glyphWidth + border * 2, height = glyphHeight + border * 2;
+			if (glyphWidth == 0 || glyphHeight == 0)
 				pageGlyphs.add(glyph);
 			else {
-				Row bestRow = null;
-				// Fit in any row before the last.
-				for (int ii = 0, nn = rows.size - 1; ii < nn; ii++) {
-					Row row = rows.get(ii);
-					if (row.x + width >= pageWidth) continue;
-					if (row.y + height >= pageHeight) continue;
-					if (height > row.height) continue;
-					if (bestRow == null || row.height < bestRow.height) bestRow = row;
+				int channel = find(packers, width, height, position);
+				if (channel == -1) {
+					// Its image is rendered again if it is loaded later, rather than kept while other pages are filled.
+					glyph.image = null;
+					continue;
 				}
-				if (bestRow == null) {
-					// Fit in last row, increasing height.
-					Row row = rows.peek();
-					if (row.y + height >= pageHeight) continue;
-					if (row.x + width < pageWidth) {
-						row.height = Math.max(row.height, height);
-						bestRow = row;
-					} else if (row.y + row.height + height < pageHeight) {
-						// Fit in new row.
-						bestRow = new Row();
-						bestRow.y = row.y + row.height;
-						bestRow.height = height;
-						rows.add(bestRow);
-					}
+				if (packers.length > 1) glyph.setChannel(CHANNEL_MASKS[channel]);
+				// The packer swaps the width and height of a glyph it turns.
+				glyph.setRotated(position.width != width);
+
+				if (glyph.image != null)
+					format = restoreGlyph(scratch, glyph, glyphWidth, glyphHeight);
+				else {
+					if (format == -1) format = rasterizeGlyph(unicodeFont, scratch, glyph, imageWidth, imageHeight);
+					if (glyph.isTrimmed())
+						cropPixels(scratch, imageWidth, glyph.getTrimX(), glyph.getTrimY(), glyphWidth, glyphHeight);
 				}
-				if (bestRow == null) continue;
-
-				if (renderGlyph(glyph, bestRow.x, bestRow.y, width, height)) bestRow.x += width;
+				if (uploadGlyph(scratch, glyph, position.x + border, position.y + border, glyphWidth, glyphHeight, format))
+					packers[channel].place(position);
+				glyph.setShape(null); // The shape will never be needed again.
 			}
 
-			iter.remove();
+			glyphs.removeIndex(i--);
+			renderedEnd--;
 			loadedCount++;
 			if (loadedCount == maxGlyphsToLoad) break;
-
 		}
 
 		return loadedCount;
 	}
 
-	static class Row {
-		int x, y, height;
+	/** Returns the number of threads glyphs of the font are rendered on ahead of {@link #loadGlyphs}, or 1 if they are only
+	 * rendered by it. Glyphs rendered with FreeType are left to it, since FreeType draws from a single font face. */
+	static private int getRenderThreadCount (UnicodeFont unicodeFont) {
+		if (unicodeFont.getRenderType() == UnicodeFont.RenderType.FreeType) return 1;
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/** Returns the threads glyphs are rendered on ahead of {@link #loadGlyphs}, shared by all fonts. The packing trials of
+	 * {@link UnicodeFont#setOptimizePacking(boolean)} run on them too, so the two never take more threads than there are
+	 * processors. They are daemon threads, so they never keep the application running. */
+	static synchronized ExecutorService getRenderExecutor () {
+		if (renderExecutor == null) {
+			renderExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread (Runnable runnable) {
+					Thread thread = new RenderThread(runnable, "Glyph renderer " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return renderExecutor;
+	}
+
+	/** Returns true if the calling thread is one of the threads glyphs are rendered on ahead of {@link #loadGlyphs}. The other
+	 * processors are then busy with other glyphs, so effects should not split their own work across threads. */
+	static public boolean isRenderThread () {
+		return Thread.currentThread() instanceof RenderThread;
 	}
 
-	/** Loads a single glyph to the backing texture, if it fits. */
-	private boolean renderGlyph (Glyph glyph, int pageX, int pageY, int width, int height) {
-		scratchGraphics.setComposite(AlphaComposite.Clear);
-		scratchGraphics.fillRect(0, 0, MAX_GLYPH_SIZE, MAX_GLYPH_SIZE);
-		scratchGraphics.setComposite(AlphaComposite.SrcOver);
+	static private class RenderThread extends Thread {
+		RenderThread (Runnable runnable, String name) {
+			super(runnable, name);
+		}
+	}
 
-		ByteBuffer glyphPixels = scratchByteBuffer;
+	/** Renders a window of glyphs ahead of {@link #loadGlyphs} on the render threads, each with its own scratch image and
+	 * buffers, and keeps each image on its glyph until the glyph is loaded. Trimmed glyphs are trimmed here and keep only their
+	 * trimmed image. Glyphs whose size is known and that don't fit on the page as it is are skipped, so a full page doesn't
+	 * render the rest of the font. Loading stays on the calling thread, in the same order, so the pages are the same as if the
+	 * glyphs were rendered there, and at most one window of images is kept at once.
+	 * @param start The index of the first glyph of the window.
+	 * @param end The index after the last glyph of the window. */
+	private void renderAhead (Array<Glyph> glyphs, int start, int end, final int border) {
+		final Array<Glyph> pending = new Array<>(end - start);
+		for (int i = start; i < end; i++) {
+			Glyph glyph = glyphs.get(i);
+			if (glyph.image != null || glyph.getWidth() == 0 || glyph.getHeight() == 0) continue;
+			if (glyph.isTrimmed() || !unicodeFont.isTrimGlyphs()) {
+				int width = glyph.isTrimmed() ? glyph.getTrimmedWidth() : getImageWidth(glyph, border);
+				int height = glyph.isTrimmed() ? glyph.getTrimmedHeight() : getImageHeight(glyph, border);
+				if (width == 0 || height == 0) continue;
+				if (find(packers, width + border * 2, height + border * 2, aheadPosition) == -1) continue;
+			}
+			pending.add(glyph);
+		}
+		if (pending.size < 2) return;
+
+		final AtomicInteger next = new AtomicInteger();
+		int threadCount = Math.min(getRenderThreadCount(unicodeFont), pending.size);
+		ExecutorService executor = getRenderExecutor();
+		try {
+			Array<Future<Object>> results = new Array<>(threadCount);
+			for (int i = 0; i < threadCount; i++) {
+				results.add(executor.submit(new Callable<Object>() {
+					public Object call () {
+						for (int i = next.getAndIncrement(); i < pending.size; i = next.getAndIncrement())
+							renderGlyph(pending.get(i), border);
+						return null;
+					}
+				}));
+			}
+			for (int i = 0; i < results.size; i++)
+				results.get(i).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			throw new GdxRuntimeException("Error rendering glyphs.", ex.getCause());
+		}
+	}
+
+	/** Renders a glyph the way {@link #loadGlyphs} would and copies its image, trimmed if it is, to {@link Glyph#image}. */
+	private void renderGlyph (Glyph glyph, int border) {
+		int width = getImageWidth(glyph, border);
+		int height = getImageHeight(glyph, border);
+		Scratch scratch = getScratch(unicodeFont, width, height);
+		int format = rasterizeGlyph(unicodeFont, scratch, glyph, width, height);
+		if (unicodeFont.isTrimGlyphs() && !glyph.isTrimmed()) trimGlyph(scratch, glyph, width, height);
+		if (glyph.isTrimmed()) {
+			cropPixels(scratch, width, glyph.getTrimX(), glyph.getTrimY(), glyph.getTrimmedWidth(), glyph.getTrimmedHeight());
+			width = glyph.getTrimmedWidth();
+			height = glyph.getTrimmedHeight();
+			// A glyph without visible pixels takes up no space, so its image is never loaded.
+			if (width == 0 || height == 0) return;
+		}
+		int[] image = new int[width * height];
+		scratch.intBuffer.get(image);
+		scratch.intBuffer.clear();
+		glyph.imageFormat = format;
+		glyph.image = image;
+	}
+
+	/** Copies the image {@link #renderAhead} kept on a glyph to the scratch's byte buffer and releases it.
+	 * @return The GL pixel format of the image. */
+	static private int restoreGlyph (Scratch scratch, Glyph glyph, int width, int height) {
+		scratch.byteBuffer.clear();
+		scratch.intBuffer.put(glyph.image, 0, width * height);
+		scratch.intBuffer.clear();
+		scratch.byteBuffer.limit(width * height * 4);
+		glyph.image = null;
+		return glyph.imageFormat;
+	}
+
+	/** Returns the width of a glyph's image, cut off at {@link #MAX_GLYPH_SIZE} and so that the image and its gutter fit on an
+	 * empty page, upright or, if glyphs may be rotated, turned. */
+	private int getImageWidth (Glyph glyph, int border) {
+		int width = Math.min(MAX_GLYPH_SIZE, glyph.getWidth());
+		if (fitsTurned(glyph, border)) return width;
+		return Math.min(width, pageWidth - border * 2);
+	}
+
+	/** Returns the height of a glyph's image, see {@link #getImageWidth}. */
+	private int getImageHeight (Glyph glyph, int border) {
+		int height = Math.min(MAX_GLYPH_SIZE, glyph.getHeight());
+		if (fitsTurned(glyph, border)) return height;
+		return Math.min(height, pageHeight - border * 2);
+	}
+
+	/** Returns true if glyphs may be rotated and the glyph's whole image fits on an empty page only when turned. */
+	private boolean fitsTurned (Glyph glyph, int border) {
+		if (!unicodeFont.isRotateGlyphs()) return false;
+		int width = Math.min(MAX_GLYPH_SIZE, glyph.getWidth()) + border * 2;
+		int height = Math.min(MAX_GLYPH_SIZE, glyph.getHeight()) + border * 2;
+		if (width <= pageWidth && height <= pageHeight) return false;
+		return height <= pageWidth && width <= pageHeight;
+	}
+
+	/** Counts the pages the glyphs take up when packed the way {@link #loadGlyphs} packs them, without rendering anything.
+	 * Duplicate glyphs are counted as if they took up space of their own, and glyphs that weren't rendered yet as if they weren't
+	 * trimmed, so the count is never too low.
+	 * @param glyphs The glyphs in the order they are loaded. Not modified.
+	 * @param maxPages Counting stops after this many pages.
+	 * @param pageAreas If not null, receives the area the glyphs and their gutters take up on each page.
+	 * @return The number of pages, or maxPages + 1 if more are needed or a glyph doesn't fit on a page at all. */
+	static int countPages (UnicodeFont unicodeFont, Array<Glyph> glyphs, UnicodeFont.PackingStrategy strategy, int pageWidth,
+		int pageHeight, int maxPages, IntArray pageAreas) {
+		int gutter = unicodeFont.getGutter() * 2;
+		boolean rotate = unicodeFont.isRotateGlyphs();
+
+		// Skip packing if the glyphs can't fit by area alone.
+		long glyphArea = 0;
+		for (Glyph glyph : glyphs) {
+			int glyphWidth = Math.min(MAX_GLYPH_SIZE, glyph.getTrimmedWidth());
+			int glyphHeight = Math.min(MAX_GLYPH_SIZE, glyph.getTrimmedHeight());
+			if (glyphWidth == 0 || glyphHeight == 0) continue;
+			if ((glyphWidth + gutter > pageWidth || glyphHeight + gutter > pageHeight)
+				&& (!rotate || glyphHeight + gutter > pageWidth || glyphWidth + gutter > pageHeight)) return maxPages + 1;
+			glyphArea += (long)(glyphWidth + gutter) * (glyphHeight + gutter);
+		}
+		if (glyphArea > (long)pageWidth * pageHeight * maxPages * (unicodeFont.isChannelPacked() ? CHANNEL_MASKS.length : 1))
+			return maxPages + 1;
+
+		Array<Glyph> remaining = new Array<>(glyphs);
+		Rectangle position = new Rectangle();
+		int pageCount = 0;
+		while (remaining.size > 0) {
+			if (pageCount == maxPages) return maxPages + 1;
+			pageCount++;
+			GlyphPacker[] packers = new GlyphPacker[unicodeFont.isChannelPacked() ? CHANNEL_MASKS.length : 1];
+			for (int i = 0; i < packers.length; i++)
+				packers[i] = createPacker(strategy, pageWidth, pageHeight, unicodeFont.isRotateGlyphs());
+			int remainingCount = remaining.size, area = 0;
+			for (int i = 0; i < remaining.size;) {
+				Glyph glyph = remaining.get(i);
+				int glyphWidth = Math.min(MAX_GLYPH_SIZE, glyph.getTrimmedWidth());
+				int glyphHeight = Math.min(MAX_GLYPH_SIZE, glyph.getTrimmedHeight());
+				if (glyphWidth != 0 && glyphHeight != 0) {
+					int channel = find(packers, glyphWidth + gutter, glyphHeight + gutter, position);
+					if (channel == -1) {
+						i++;
+						continue;
+					}
+					packers[channel].place(position);
+					area += position.width * position.height;
+				}
+				remaining.removeIndex(i);
+			}
+			if (remaining.size == remainingCount) return maxPages + 1;
+			if (pageAreas != null) pageAreas.add(area);
+		}
+		return pageCount;
+	}
+
+	/** Renders a glyph's image to the scratch's byte buffer, row by row from its start to its limit.
+	 * @return The GL pixel format of the image. */
+	static int rasterizeGlyph (UnicodeFont unicodeFont, Scratch scratch, Glyph glyph, int width, int height) {
+		scratch.byteBuffer.clear();
+
+		ByteBuffer glyphPixels = scratch.byteBuffer;
 		int format;
 		if (unicodeFont.getRenderType() == UnicodeFont.RenderType.FreeType && unicodeFont.bitmapFont != null) {
 			BitmapFontData data = unicodeFont.bitmapFont.getData();
@@ -165,18 +424,20 @@ public class GlyphPage {
 			int glyphRowBytes = width * 4, fontRowBytes = g.width * 4;
 
 			ByteBuffer fontPixels = fontPixmap.getPixels();
-			byte[] row = new byte[glyphRowBytes];
+			byte[] row = scratch.rowBytes;
+			// The padding around the glyph is transparent.
+			Arrays.fill(row, 0, glyphRowBytes, (byte)0);
 			glyphPixels.position(0);
 			for (int i = 0; i < padTop; i++)
-				glyphPixels.put(row);
+				glyphPixels.put(row, 0, glyphRowBytes);
 			glyphPixels.position((height - padBottom) * glyphRowBytes);
 			for (int i = 0; i < padBottom; i++)
-				glyphPixels.put(row);
+				glyphPixels.put(row, 0, glyphRowBytes);
 			glyphPixels.position(padTop * glyphRowBytes);
 			for (int y = 0, n = g.height; y < n; y++) {
 				fontPixels.position(((g.srcY + y) * fontWidth + g.srcX) * 4);
 				fontPixels.get(row, padLeftBytes, fontRowBytes);
-				glyphPixels.put(row);
+				glyphPixels.put(row, 0, glyphRowBytes);
 			}
 			fontPixels.position(0);
 			glyphPixels.position(height * glyphRowBytes);
@@ -184,98 +445,329 @@ public class GlyphPage {
 			format = GL11.GL_RGBA;
 		} else {
 			// Draw the glyph to the scratch image using Java2D.
+			int reach = unicodeFont.getRenderType() == UnicodeFont.RenderType.Java ? getEffectReach(unicodeFont) : 0;
+			clearScratch(scratch, width, height, reach);
 			if (unicodeFont.getRenderType() == UnicodeFont.RenderType.Native) {
-				for (Effect o : unicodeFont.getEffects()) {
-					if (o instanceof ColorEffect) scratchGraphics.setColor(((ColorEffect) o).getColor());
+				for (int i = 0; i < unicodeFont.getEffects().size; i++) {
+					Effect o = unicodeFont.getEffects().get(i);
+					if (o instanceof ColorEffect) scratch.graphics.setColor(((ColorEffect) o).getColor());
 				}
-				scratchGraphics.setColor(java.awt.Color.white);
-				scratchGraphics.setFont(unicodeFont.getFont());
-				scratchGraphics.drawString("" + (char)glyph.getCodePoint(), 0, unicodeFont.getAscent());
+				scratch.graphics.setColor(java.awt.Color.white);
+				scratch.graphics.setFont(getCharacterFont(scratch, unicodeFont.getFont()));
+				scratch.chars[0] = (char)glyph.getCodePoint();
+				scratch.graphics.drawChars(scratch.chars, 0, 1, 0, unicodeFont.getAscent());
 			}
 			if (unicodeFont.getRenderType() == UnicodeFont.RenderType.Java) {
-				scratchGraphics.setColor(java.awt.Color.white);
+				scratch.graphics.setColor(java.awt.Color.white);
 				for (int i = 0; i < unicodeFont.getEffects().size; i ++) {
-					unicodeFont.getEffects().get(i).draw(scratchImage, scratchGraphics, unicodeFont, glyph);
+					unicodeFont.getEffects().get(i).draw(scratch.image, scratch.graphics, unicodeFont, glyph);
 				}
-				glyph.setShape(null); // The shape will never be needed again.
 			}
 
-			width = Math.min(width, texture.getWidth());
-			height = Math.min(height, texture.getHeight());
-
-			WritableRaster raster = scratchImage.getRaster();
-			int[] row = new int[width];
-			for (int y = 0; y < height; y++) {
-				raster.getDataElements(0, y, width, 1, row);
-				scratchIntBuffer.put(row);
-			}
+			for (int y = 0; y < height; y++)
+				scratch.intBuffer.put(scratch.imagePixels, y * scratch.size, width);
+			scratch.intBuffer.clear();
+			glyphPixels.position(0);
+			glyphPixels.limit(width * height * 4);
 			format = GL12.GL_BGRA;
 		}
+		return format;
+	}
 
-		// Simple deduplication, doesn't work across pages of course.
-		String hash = "";
-		try {
-			MessageDigest md = MessageDigest.getInstance("SHA-256");
-			md.update(glyphPixels);
-			BigInteger bigInt = new BigInteger(1, md.digest());
-			hash = bigInt.toString(16);
-		} catch (NoSuchAlgorithmException ignored) {
+	/** Clears the part of the scratch image the last glyph was drawn to, and clips drawing to the part the next one may be drawn
+	 * to: its image and as far past it as the effects can still change the image from, or the whole scratch image if that isn't
+	 * known. Clearing only that part keeps small glyphs from paying for clearing the whole scratch image.
+	 * @param reach See {@link #getEffectReach}. */
+	static private void clearScratch (Scratch scratch, int width, int height, int reach) {
+		int[] pixels = scratch.imagePixels;
+		int size = scratch.size;
+		for (int y = 0, n = scratch.dirtyHeight; y < n; y++)
+			Arrays.fill(pixels, y * size, y * size + scratch.dirtyWidth, 0);
+
+		int clipWidth = size, clipHeight = size;
+		if (reach != -1) {
+			clipWidth = Math.min(size, width + reach);
+			clipHeight = Math.min(size, height + reach);
+			// Setting the clip allocates, so the clip only grows. The scratch is no larger than the glyph's size class, so neither
+			// is the part of it that is cleared.
+			clipWidth = Math.max(clipWidth, scratch.clipWidth);
+			clipHeight = Math.max(clipHeight, scratch.clipHeight);
+		}
+		if (clipWidth != scratch.clipWidth || clipHeight != scratch.clipHeight) {
+			scratch.graphics.setClip(0, 0, clipWidth, clipHeight);
+			scratch.clipWidth = clipWidth;
+			scratch.clipHeight = clipHeight;
 		}
-		scratchByteBuffer.clear();
-		scratchIntBuffer.clear();
+		// A blur can spread what was drawn past the clip again.
+		scratch.dirtyWidth = reach == -1 ? size : Math.min(size, clipWidth + reach);
+		scratch.dirtyHeight = reach == -1 ? size : Math.min(size, clipHeight + reach);
+	}
 
-		try {
-			for (int i = 0, n = hashes.size; i < n; i++) {
-				String other = hashes.get(i);
-				if (other.equals(hash)) {
-					Glyph dupe = pageGlyphs.get(i);
-					glyph.setTexture(dupe.texture, dupe.u, dupe.v, dupe.u2, dupe.v2);
-					return false;
-				}
+	/** Returns the font without kerning, which makes no difference for a single character. Java2D lays out text in a font with
+	 * kerning as a TextLayout, allocating for every character drawn.
+	 * @return The same font for the same font, so it is only derived once per font and thread. */
+	static private Font getCharacterFont (Scratch scratch, Font font) {
+		if (font != scratch.font) {
+			Map<TextAttribute, Object> attributes = new HashMap<>(font.getAttributes());
+			attributes.remove(TextAttribute.KERNING);
+			scratch.font = font;
+			scratch.characterFont = new Font(attributes);
+		}
+		return scratch.characterFont;
+	}
+
+	/** Returns how many pixels past a glyph's image the effects may read from the scratch image, by blurring, or -1 if that
+	 * isn't known because an effect works on the image in a way only it knows. */
+	static private int getEffectReach (UnicodeFont unicodeFont) {
+		int reach = 0;
+		for (int i = 0, n = unicodeFont.getEffects().size; i < n; i++) {
+			Effect effect = unicodeFont.getEffects().get(i);
+			if (effect instanceof ShadowEffect)
+				reach += ((ShadowEffect)effect).getBlurReach();
+			else if (!(effect instanceof ColorEffect || effect instanceof GradientEffect || effect instanceof OutlineEffect
+				|| effect instanceof DistanceFieldEffect || effect instanceof MultiChannelDistanceFieldEffect)) return -1;
+		}
+		return reach;
+	}
+
+	/** Finds the smallest rectangle holding all pixels of a rendered glyph's image that aren't fully transparent, and stores it on
+	 * the glyph. Both pixel formats keep alpha in the fourth byte. */
+	static private void trimGlyph (Scratch scratch, Glyph glyph, int width, int height) {
+		ByteBuffer pixels = scratch.byteBuffer;
+		int minX = width, minY = height, maxX = -1, maxY = -1;
+		for (int y = 0, i = 3; y < height; y++) {
+			for (int x = 0; x < width; x++, i += 4) {
+				if (pixels.get(i) == 0) continue;
+				if (x < minX) minX = x;
+				if (x > maxX) maxX = x;
+				if (y < minY) minY = y;
+				maxY = y;
 			}
-		} finally {
-			hashes.add(hash);
-			pageGlyphs.add(glyph);
 		}
+		if (maxX == -1)
+			glyph.setTrim(0, 0, 0, 0);
+		else
+			glyph.setTrim(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
+
+	/** Moves a part of the image in the scratch's byte buffer to its start, so that only that part is uploaded. */
+	static private void cropPixels (Scratch scratch, int width, int cropX, int cropY, int cropWidth, int cropHeight) {
+		IntBuffer pixels = scratch.intBuffer;
+		// Every pixel moves to a lower index, so the ones still to be moved are never overwritten.
+		for (int y = 0; y < cropHeight; y++) {
+			for (int x = 0, from = (y + cropY) * width + cropX, to = y * cropWidth; x < cropWidth; x++)
+				pixels.put(to + x, pixels.get(from + x));
+		}
+		scratch.byteBuffer.position(0);
+		scratch.byteBuffer.limit(cropWidth * cropHeight * 4);
+	}
 
-		Gdx.gl.glTexSubImage2D(texture.glTarget, 0, pageX, pageY, width, height, format, GL11.GL_UNSIGNED_BYTE, glyphPixels);
+	/** Loads a single glyph rendered by {@link #rasterizeGlyph} to the backing texture, unless a page of the font already has
+	 * the same image. Then the glyph uses that image and is added to that page. A glyph that is {@link Glyph#isRotated()
+	 * rotated} is turned here.
+	 * @param width The width of the glyph's image, before it is turned.
+	 * @param height The height of the glyph's image, before it is turned.
+	 * @return true if the glyph took up space on the page. */
+	private boolean uploadGlyph (Scratch scratch, Glyph glyph, int pageX, int pageY, int width, int height, int format) {
+		ByteBuffer glyphPixels = scratch.byteBuffer;
+
+		long digest = GlyphIndex.digest(glyphPixels);
+		GlyphIndex.Entry entry = unicodeFont.glyphIndex.find(digest, scratch.intBuffer, width, height, format);
+		if (entry != null) {
+			Glyph dupe = entry.glyph;
+			glyph.setPage(dupe.page, dupe.u, dupe.v, dupe.u2, dupe.v2);
+			glyph.setChannel(dupe.getChannel());
+			glyph.setRotated(dupe.isRotated());
+			entry.page.pageGlyphs.add(glyph);
+			return false;
+		}
+		unicodeFont.glyphIndex.add(digest, pageX, pageY, width, height, glyph, this);
+		pageGlyphs.add(glyph);
+
+		if (glyph.isRotated()) {
+			rotatePixels(scratch, width, height);
+			int swap = width;
+			width = height;
+			height = swap;
+		}
+		width = Math.min(width, pageWidth);
+		height = Math.min(height, pageHeight);
+		storeGlyph(scratch, glyph, pageX, pageY, width, height, format);
+		scratch.byteBuffer.clear();
 
-		float u = pageX / (float)texture.getWidth();
-		float v = pageY / (float)texture.getHeight();
-		float u2 = (pageX + width) / (float)texture.getWidth();
-		float v2 = (pageY + height) / (float)texture.getHeight();
-		glyph.setTexture(texture, u, v, u2, v2);
+		float u = pageX / (float)pageWidth;
+		float v = pageY / (float)pageHeight;
+		float u2 = (pageX + width) / (float)pageWidth;
+		float v2 = (pageY + height) / (float)pageHeight;
+		glyph.setPage(this, u, v, u2, v2);
 
 		return true;
 	}
 
+	/** Turns the image in the scratch's byte buffer 90° counterclockwise, the way libGDX texture atlases store rotated regions:
+	 * its top right corner becomes the top left one. */
+	static private void rotatePixels (Scratch scratch, int width, int height) {
+		IntBuffer pixels = scratch.intBuffer;
+		pixels.get(scratch.pixels, 0, width * height);
+		pixels.clear();
+		for (int y = 0; y < width; y++) {
+			for (int x = 0, offset = y * height; x < height; x++)
+				pixels.put(offset + x, scratch.pixels[x * width + width - 1 - y]);
+		}
+	}
+
+	/** Stores the image in the scratch's byte buffer on the page with its top left at the given position, and fills the font's
+	 * gutter around it. If glyphs are stored in separate channels, only the glyph's alpha is kept, in the glyph's channel, and the
+	 * other channels of the rectangle stay as they were. Both pixel formats keep alpha in the fourth byte. */
+	private void storeGlyph (Scratch scratch, Glyph glyph, int pageX, int pageY, int width, int height, int format) {
+		int mask;
+		if (packers.length > 1) {
+			int shift = CHANNEL_SHIFTS[Integer.numberOfTrailingZeros(glyph.getChannel())];
+			pagePixels.setChannel(scratch.intBuffer, pageX, pageY, width, height, shift);
+			mask = 0xff << shift;
+		} else {
+			pagePixels.set(scratch.intBuffer, pageX, pageY, width, height, format == GL12.GL_BGRA);
+			mask = -1;
+		}
+		// A transparent gutter is left as the page was created.
+		int border = unicodeFont.getGutter();
+		if (border > 0 && unicodeFont.getGutterFill() == UnicodeFont.GutterFill.Extrude)
+			pagePixels.extrude(pageX, pageY, width, height, border, mask);
+	}
+
+	/** Returns true if the image of a glyph found in the font's {@link GlyphIndex} is stored on this page the way the given image
+	 * would be stored. If glyphs are stored in separate channels, only the image's alpha is compared.
+	 * @param image The image's pixels row by row, from index 0, as large as the entry's.
+	 * @param format The GL pixel format of the image. */
+	boolean matches (GlyphIndex.Entry entry, IntBuffer image, int format) {
+		boolean rotated = entry.glyph.isRotated();
+		if (packers.length > 1) {
+			int shift = CHANNEL_SHIFTS[Integer.numberOfTrailingZeros(entry.glyph.getChannel())];
+			return pagePixels.matchesChannel(image, entry.x, entry.y, entry.width, entry.height, rotated, shift);
+		}
+		return pagePixels.matches(image, entry.x, entry.y, entry.width, entry.height, rotated, format == GL12.GL_BGRA);
+	}
+
 	/** Returns the glyphs stored on this page. */
 	public Array<Glyph> getGlyphs () {
 		return pageGlyphs;
 	}
 
-	/** Returns the backing texture for this page. */
+	/** Copies a row of the page's pixels to the array as ARGB ints, the way {@link BufferedImage#TYPE_INT_ARGB} stores them.
+	 * Doesn't need an OpenGL context.
+	 * @param row Must be at least as long as the page is wide. */
+	public void getRGB (int y, int[] row) {
+		pagePixels.getRGB(y, row);
+	}
+
+	/** Returns the backing texture for this page, creating it or uploading the glyphs stored since the last call first if needed.
+	 * Glyphs stored in between are uploaded together, however many there are. This needs an OpenGL context. */
 	public Texture getTexture () {
+		if (texture == null) texture = new Texture(pageWidth, pageHeight, Format.RGBA8888);
+		pagePixels.upload(texture);
 		return texture;
 	}
 
-	public static final int MAX_GLYPH_SIZE = 256;
-
-	private static final ByteBuffer scratchByteBuffer = ByteBuffer.allocateDirect(MAX_GLYPH_SIZE * MAX_GLYPH_SIZE * 4);
+	/** Releases the backing texture, if it was created. */
+	void dispose () {
+		if (texture != null) texture.dispose();
+	}
 
-	static {
-		scratchByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+	/** The largest width and height of a glyph's image, larger glyphs are cut off. Glyphs are also cut off to fit on the page with
+	 * their gutter. */
+	public static final int MAX_GLYPH_SIZE = 1024;
+	/** How many glyphs per render thread {@link #loadGlyphs} renders ahead of the glyph it loads. */
+	static private final int RENDER_AHEAD_PER_THREAD = 4;
+	/** Created by {@link #getRenderExecutor()}, or null. */
+	static private ExecutorService renderExecutor;
+	/** The size of the smallest scratch image. Each size class is twice as large as the one before, up to
+	 * {@link #MAX_GLYPH_SIZE}. */
+	static private final int MIN_SCRATCH_SIZE = 64;
+	/** The smallest scratch image a glyph is drawn on when an effect's reach isn't known. Such an effect may work on the whole
+	 * image, so glyphs up to this size always get an image of this size. */
+	static private final int UNKNOWN_REACH_SCRATCH_SIZE = 256;
+
+	/** The BMFont channel bits of blue, green, red and alpha, in the order glyphs are stored in them. */
+	static final int[] CHANNEL_MASKS = {1, 2, 4, 8};
+	/** The bit offset of each channel in an RGBA pixel read as a little endian int. */
+	static private final int[] CHANNEL_SHIFTS = {16, 8, 0, 24};
+
+	/** The image and buffers one thread renders glyphs of one size class with, so that glyphs can be rendered on several threads
+	 * at once and small glyphs don't pay for buffers sized for the largest ones. */
+	static class Scratch {
+		/** The width and height of the image, and the number of pixels the buffers hold in each direction. */
+		final int size;
+		final ByteBuffer byteBuffer;
+		final IntBuffer intBuffer;
+		final int[] pixels;
+		final BufferedImage image;
+		/** The image's pixels, row by row, {@link #size} apart. */
+		final int[] imagePixels;
+		final Graphics2D graphics;
+		/** The part of the image that may not be transparent, from its top left. */
+		int dirtyWidth, dirtyHeight;
+		/** The part of the image drawing is clipped to, from its top left. Nothing is drawn before the first clip is set, so it
+		 * starts empty. */
+		int clipWidth, clipHeight;
+		final int[] row;
+		final byte[] rowBytes;
+		final char[] chars = new char[1];
+		/** The font last drawn with and the same font without kerning, see {@link #getCharacterFont}. */
+		Font font, characterFont;
+
+		Scratch (int size) {
+			this.size = size;
+			byteBuffer = ByteBuffer.allocateDirect(size * size * 4).order(ByteOrder.LITTLE_ENDIAN);
+			intBuffer = byteBuffer.asIntBuffer();
+			pixels = new int[size * size];
+			image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+			imagePixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+			graphics = createGraphics(image);
+			row = new int[size];
+			rowBytes = new byte[size * 4];
+		}
 	}
 
-	private static final IntBuffer scratchIntBuffer = scratchByteBuffer.asIntBuffer();
+	/** Each thread's scratches, one per size class, created when a glyph first needs that size. */
+	static private final ThreadLocal<Scratch[]> threadScratches = new ThreadLocal<Scratch[]>() {
+		protected Scratch[] initialValue () {
+			return new Scratch[Integer.numberOfTrailingZeros(MAX_GLYPH_SIZE / MIN_SCRATCH_SIZE) + 1];
+		}
+	};
+
+	/** Returns the calling thread's scratch of the smallest size class that holds the given size, or of the largest class. */
+	static private Scratch getScratch (int size) {
+		size = Math.min(MAX_GLYPH_SIZE, MathUtils.nextPowerOfTwo(Math.max(MIN_SCRATCH_SIZE, size)));
+		Scratch[] scratches = threadScratches.get();
+		int index = Integer.numberOfTrailingZeros(size / MIN_SCRATCH_SIZE);
+		if (scratches[index] == null) scratches[index] = new Scratch(size);
+		return scratches[index];
+	}
 
-	private static final BufferedImage scratchImage = new BufferedImage(MAX_GLYPH_SIZE, MAX_GLYPH_SIZE, BufferedImage.TYPE_INT_ARGB);
-	static Graphics2D scratchGraphics = (Graphics2D)scratchImage.getGraphics();
+	/** Returns the scratch to draw a glyph image of the given size on, large enough for the effects' blur to spread without
+	 * reaching the image's edges. */
+	static Scratch getScratch (UnicodeFont unicodeFont, int width, int height) {
+		int size = Math.max(width, height);
+		if (unicodeFont.getRenderType() == UnicodeFont.RenderType.Java) {
+			int reach = getEffectReach(unicodeFont);
+			if (reach == -1)
+				size = Math.max(size, UNKNOWN_REACH_SCRATCH_SIZE);
+			else
+				size += reach * 2;
+		}
+		return getScratch(size);
+	}
 
-	static {
-		scratchGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-		scratchGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+	static private Graphics2D createGraphics (BufferedImage image) {
+		Graphics2D graphics = (Graphics2D)image.getGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		return graphics;
 	}
 
+	/** Measures fonts with the same rendering hints glyphs are drawn with. Glyphs are drawn with the {@link Scratch} of the thread
+	 * rendering them. */
+	static Graphics2D scratchGraphics = createGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+
 	static public FontRenderContext renderContext = scratchGraphics.getFontRenderContext();
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.awt.*;
+
+/** Packs glyphs with the maximal rectangles algorithm. All maximal free rectangles of the page are tracked, overlapping each
+ * other, so a glyph can go anywhere there is room for it, including the space above short glyphs that a {@link ShelfPacker}
+ * wastes. Glyphs should still be added largest first.
+ * 
+ * <p>
+ * The algorithm is described in "A Thousand Ways to Pack the Bin" by Jukka Jylänki:
+ * <a href="https://github.com/juj/RectangleBinPack">https://github.com/juj/RectangleBinPack</a>
+ * @author Yi An */
+public class MaxRectsPacker implements GlyphPacker {
+	private final int pageWidth, pageHeight;
+	private final Heuristic heuristic;
+	private final boolean allowRotation;
+	private final Array<Rectangle> freeRectangles = new Array<>();
+	private final Array<Rectangle> usedRectangles = new Array<>();
+	/** The parts of split free rectangles, not yet pruned and added to the free rectangles. */
+	private final Array<Rectangle> newFreeRectangles = new Array<>();
+
+	public MaxRectsPacker (int pageWidth, int pageHeight, Heuristic heuristic) {
+		this(pageWidth, pageHeight, heuristic, false);
+	}
+
+	/** @param allowRotation If true, a rectangle is turned 90° when that scores better. */
+	public MaxRectsPacker (int pageWidth, int pageHeight, Heuristic heuristic, boolean allowRotation) {
+		this.pageWidth = pageWidth;
+		this.pageHeight = pageHeight;
+		this.heuristic = heuristic;
+		this.allowRotation = allowRotation;
+		freeRectangles.add(new Rectangle(0, 0, pageWidth, pageHeight));
+	}
+
+	public boolean find (int width, int height, Rectangle position) {
+		Rectangle best = null;
+		int bestScore = Integer.MAX_VALUE, bestSecondaryScore = Integer.MAX_VALUE;
+		boolean bestRotated = false;
+		int orientations = allowRotation && width != height ? 2 : 1;
+		for (int i = 0, n = freeRectangles.size; i < n; i++) {
+			Rectangle free = freeRectangles.get(i);
+			for (int r = 0; r < orientations; r++) {
+				int w = r == 0 ? width : height, h = r == 0 ? height : width;
+				if (w > free.width || h > free.height) continue;
+				int leftoverX = free.width - w, leftoverY = free.height - h;
+				int score, secondaryScore;
+				switch (heuristic) {
+				case BestShortSideFit:
+					score = Math.min(leftoverX, leftoverY);
+					secondaryScore = Math.max(leftoverX, leftoverY);
+					break;
+				case BestAreaFit:
+					score = free.width * free.height - w * h;
+					secondaryScore = Math.min(leftoverX, leftoverY);
+					break;
+				default:
+					// Most contact is best, so it is negated.
+					score = -contactPoint(free.x, free.y, w, h);
+					secondaryScore = 0;
+					break;
+				}
+				if (score < bestScore || (score == bestScore && secondaryScore < bestSecondaryScore)) {
+					best = free;
+					bestScore = score;
+					bestSecondaryScore = secondaryScore;
+					bestRotated = r == 1;
+				}
+			}
+		}
+		if (best == null) return false;
+		position.setBounds(best.x, best.y, bestRotated ? height : width, bestRotated ? width : height);
+		return true;
+	}
+
+	public void place (Rectangle position) {
+		Rectangle used = new Rectangle(position);
+		for (int i = 0; i < freeRectangles.size; i++) {
+			if (splitFreeRectangle(freeRectangles.get(i), used)) {
+				freeRectangles.removeIndex(i);
+				i--;
+			}
+		}
+		pruneFreeRectangles();
+		freeRectangles.addAll(newFreeRectangles);
+		newFreeRectangles.clear();
+		usedRectangles.add(used);
+	}
+
+	/** Returns how many pixels of the rectangle's edges would touch the page's edges or other glyphs. */
+	private int contactPoint (int x, int y, int width, int height) {
+		int score = 0;
+		if (x == 0 || x + width == pageWidth) score += height;
+		if (y == 0 || y + height == pageHeight) score += width;
+		for (int i = 0, n = usedRectangles.size; i < n; i++) {
+			Rectangle used = usedRectangles.get(i);
+			if (used.x == x + width || used.x + used.width == x)
+				score += commonInterval(used.y, used.y + used.height, y, y + height);
+			if (used.y == y + height || used.y + used.height == y)
+				score += commonInterval(used.x, used.x + used.width, x, x + width);
+		}
+		return score;
+	}
+
+	static private int commonInterval (int start1, int end1, int start2, int end2) {
+		if (end1 < start2 || end2 < start1) return 0;
+		return Math.min(end1, end2) - Math.max(start1, start2);
+	}
+
+	/** Adds the parts of a free rectangle that are left around a used one to the new free rectangles.
+	 * @return true if the free rectangle overlaps the used one and has to be removed */
+	private boolean splitFreeRectangle (Rectangle free, Rectangle used) {
+		if (used.x >= free.x + free.width || used.x + used.width <= free.x || used.y >= free.y + free.height
+			|| used.y + used.height <= free.y) return false;
+
+		if (used.x < free.x + free.width && used.x + used.width > free.x) {
+			// Above the used rectangle.
+			if (used.y > free.y && used.y < free.y + free.height)
+				addNewFreeRectangle(new Rectangle(free.x, free.y, free.width, used.y - free.y));
+			// Below the used rectangle.
+			if (used.y + used.height < free.y + free.height) {
+				addNewFreeRectangle(new Rectangle(free.x, used.y + used.height, free.width,
+					free.y + free.height - (used.y + used.height)));
+			}
+		}
+		if (used.y < free.y + free.height && used.y + used.height > free.y) {
+			// Left of the used rectangle.
+			if (used.x > free.x && used.x < free.x + free.width)
+				addNewFreeRectangle(new Rectangle(free.x, free.y, used.x - free.x, free.height));
+			// Right of the used rectangle.
+			if (used.x + used.width < free.x + free.width) {
+				addNewFreeRectangle(new Rectangle(used.x + used.width, free.y, free.x + free.width - (used.x + used.width),
+					free.height));
+			}
+		}
+		return true;
+	}
+
+	/** Adds a new free rectangle unless another new one contains it, and removes the new ones it contains. */
+	private void addNewFreeRectangle (Rectangle free) {
+		for (int i = 0; i < newFreeRectangles.size; i++) {
+			Rectangle other = newFreeRectangles.get(i);
+			if (other.contains(free)) return;
+			if (free.contains(other)) {
+				newFreeRectangles.removeIndex(i);
+				i--;
+			}
+		}
+		newFreeRectangles.add(free);
+	}
+
+	/** Removes the new free rectangles that are contained in an old one. An old one is never contained in a new one: the new ones
+	 * are parts of old ones that were split, and old ones never contain each other. That way only the few new ones are compared to
+	 * all others, not all free rectangles to each other. */
+	private void pruneFreeRectangles () {
+		for (int i = 0; i < newFreeRectangles.size; i++) {
+			Rectangle free = newFreeRectangles.get(i);
+			for (int j = 0, n = freeRectangles.size; j < n; j++) {
+				if (freeRectangles.get(j).contains(free)) {
+					newFreeRectangles.removeIndex(i);
+					i--;
+					break;
+				}
+			}
+		}
+	}
+
+	/** How to choose among the free rectangles a glyph fits in. */
+	public enum Heuristic {
+		/** The free rectangle that leaves the least room along its shorter side. */
+		BestShortSideFit,
+		/** The smallest free rectangle. */
+		BestAreaFit,
+		/** The position where the glyph touches the most other glyphs and page edges. */
+		ContactPoint
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/** The pixels of a glyph page, kept in memory. Glyphs are stored here, and saving a font reads them from here, so neither needs
+ * an OpenGL context. The page's texture is only a copy for drawing, uploaded when it is needed.
+ * 
+ * <p>
+ * Every pixel is an int in RGBA byte order read as little endian, so red is the lowest byte and alpha the highest.
+ * @author Yi An */
+class PagePixels {
+	final int width, height;
+	private final int[] pixels;
+	/** The rectangle holding every pixel set since the last upload, from its top left to its bottom right exclusive. Empty if
+	 * nothing was set. */
+	private int dirtyX1, dirtyY1, dirtyX2, dirtyY2;
+
+	PagePixels (int width, int height) {
+		this.width = width;
+		this.height = height;
+		pixels = new int[width * height];
+		clean();
+	}
+
+	/** Copies an image to the page.
+	 * @param image The image's pixels row by row, from index 0.
+	 * @param bgra If true, the image's pixels are in BGRA byte order instead of RGBA. */
+	void set (IntBuffer image, int x, int y, int imageWidth, int imageHeight, boolean bgra) {
+		for (int row = 0, i = 0; row < imageHeight; row++) {
+			for (int column = 0, offset = (y + row) * width + x; column < imageWidth; column++, i++) {
+				int pixel = image.get(i);
+				pixels[offset + column] = bgra ? swapRedBlue(pixel) : pixel;
+			}
+		}
+		markDirty(x, y, imageWidth, imageHeight);
+	}
+
+	/** Copies the alpha of an image to one channel of the page, leaving the other channels as they are.
+	 * @param image The image's pixels row by row, from index 0. Alpha is the fourth byte.
+	 * @param shift The bit offset of the channel in a pixel. */
+	void setChannel (IntBuffer image, int x, int y, int imageWidth, int imageHeight, int shift) {
+		int mask = ~(0xff << shift);
+		for (int row = 0, i = 0; row < imageHeight; row++) {
+			for (int column = 0, offset = (y + row) * width + x; column < imageWidth; column++, i++) {
+				int alpha = image.get(i) >>> 24;
+				pixels[offset + column] = pixels[offset + column] & mask | alpha << shift;
+			}
+		}
+		markDirty(x, y, imageWidth, imageHeight);
+	}
+
+	/** Returns true if an image was copied to the page by {@link #set} at the given position, or would be copied the same.
+	 * @param image The image's pixels row by row, from index 0.
+	 * @param rotated If true, the image is compared with the page turned 90° counterclockwise, see {@link #getPixelIndex}.
+	 * @param bgra If true, the image's pixels are in BGRA byte order instead of RGBA. */
+	boolean matches (IntBuffer image, int x, int y, int imageWidth, int imageHeight, boolean rotated, boolean bgra) {
+		for (int row = 0, i = 0; row < imageHeight; row++) {
+			for (int column = 0; column < imageWidth; column++, i++) {
+				int pixel = image.get(i);
+				if (pixels[getPixelIndex(x, y, imageWidth, column, row, rotated)] != (bgra ? swapRedBlue(pixel) : pixel)) return false;
+			}
+		}
+		return true;
+	}
+
+	/** Returns true if the alpha of an image was copied to one channel of the page by {@link #setChannel} at the given position,
+	 * or would be copied the same.
+	 * @param image The image's pixels row by row, from index 0. Alpha is the fourth byte.
+	 * @param rotated If true, the image is compared with the page turned 90° counterclockwise, see {@link #getPixelIndex}.
+	 * @param shift The bit offset of the channel in a pixel. */
+	boolean matchesChannel (IntBuffer image, int x, int y, int imageWidth, int imageHeight, boolean rotated, int shift) {
+		for (int row = 0, i = 0; row < imageHeight; row++) {
+			for (int column = 0; column < imageWidth; column++, i++) {
+				int alpha = image.get(i) >>> 24;
+				if ((pixels[getPixelIndex(x, y, imageWidth, column, row, rotated)] >>> shift & 0xff) != alpha) return false;
+			}
+		}
+		return true;
+	}
+
+	/** Returns the index of the page pixel a pixel of an image stored at the given position is at. An image that was turned 90°
+	 * counterclockwise before it was stored has its top right corner at the position, and its rows are the page's columns.
+	 * @param imageWidth The width of the image before it was turned. */
+	private int getPixelIndex (int x, int y, int imageWidth, int column, int row, boolean rotated) {
+		if (rotated) return (y + imageWidth - 1 - column) * width + x + row;
+		return (y + row) * width + x + column;
+	}
+
+	/** Surrounds a rectangle of the page with copies of its edge pixels, the corners with copies of its corner pixels, so that it
+	 * grows by the border on every side. The grown rectangle must fit on the page.
+	 * @param mask The bits of each pixel that are copied, the others stay as they are. */
+	void extrude (int x, int y, int rectWidth, int rectHeight, int border, int mask) {
+		if (rectWidth <= 0 || rectHeight <= 0 || border <= 0) return;
+		int x2 = x + rectWidth - 1, y2 = y + rectHeight - 1;
+		for (int row = y - border; row <= y2 + border; row++) {
+			int source = Math.min(Math.max(row, y), y2) * width, offset = row * width;
+			boolean inside = row >= y && row <= y2;
+			for (int column = x - border; column <= x2 + border; column++) {
+				// The rectangle's own pixels stay.
+				if (inside && column == x) column = x2 + 1;
+				int pixel = pixels[source + Math.min(Math.max(column, x), x2)];
+				pixels[offset + column] = pixels[offset + column] & ~mask | pixel & mask;
+			}
+		}
+		markDirty(x - border, y - border, rectWidth + border * 2, rectHeight + border * 2);
+	}
+
+	/** Copies a row of pixels to the array as ARGB ints, the way {@link java.awt.image.BufferedImage#TYPE_INT_ARGB} stores them. */
+	void getRGB (int y, int[] row) {
+		for (int x = 0, offset = y * width; x < width; x++)
+			row[x] = swapRedBlue(pixels[offset + x]);
+	}
+
+	/** Returns true if pixels were set since the last upload. */
+	boolean isDirty () {
+		return dirtyX1 < dirtyX2;
+	}
+
+	/** Uploads the pixels set since the last upload to the texture, which must be as large as the page and hold the pixels as
+	 * they were at that upload. A new texture is transparent like a new page, so it may be uploaded to this way too. The smallest
+	 * rectangle holding all those pixels is uploaded a few rows at a time, so storing many glyphs costs only a few OpenGL calls. */
+	void upload (Texture texture) {
+		if (!isDirty()) return;
+		texture.bind();
+		IntBuffer buffer = uploadInts;
+		int x = dirtyX1, uploadWidth = dirtyX2 - dirtyX1;
+		int rows = Math.max(1, buffer.capacity() / uploadWidth);
+		for (int y = dirtyY1; y < dirtyY2; y += rows) {
+			int count = Math.min(rows, dirtyY2 - y);
+			buffer.clear();
+			for (int row = y, n = y + count; row < n; row++)
+				buffer.put(pixels, row * width + x, uploadWidth);
+			uploadBuffer.position(0);
+			uploadBuffer.limit(count * uploadWidth * 4);
+			Gdx.gl.glTexSubImage2D(texture.glTarget, 0, x, y, uploadWidth, count, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE,
+				uploadBuffer);
+			uploadBuffer.clear();
+		}
+		clean();
+	}
+
+	/** Grows the dirty rectangle to hold the given one. */
+	private void markDirty (int x, int y, int imageWidth, int imageHeight) {
+		if (imageWidth <= 0 || imageHeight <= 0) return;
+		dirtyX1 = Math.min(dirtyX1, x);
+		dirtyY1 = Math.min(dirtyY1, y);
+		dirtyX2 = Math.max(dirtyX2, x + imageWidth);
+		dirtyY2 = Math.max(dirtyY2, y + imageHeight);
+	}
+
+	/** Empties the dirty rectangle. */
+	private void clean () {
+		dirtyX1 = width;
+		dirtyY1 = height;
+		dirtyX2 = 0;
+		dirtyY2 = 0;
+	}
+
+	/** Swaps the first and third byte, turning RGBA into BGRA or BGRA into RGBA, and ABGR into ARGB. */
+	static private int swapRedBlue (int pixel) {
+		return pixel & 0xff00ff00 | (pixel & 0xff) << 16 | pixel >>> 16 & 0xff;
+	}
+
+	static private final ByteBuffer uploadBuffer = ByteBuffer.allocateDirect(256 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+	static private final IntBuffer uploadInts = uploadBuffer.asIntBuffer();
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.awt.*;
+
+/** Packs glyphs in rows, like shelves. A glyph goes in the row before the last with the least height it fits in, or else at the
+ * end of the last row, which grows to fit it, or else in a new row. Fast and works well when glyphs are added tallest first, but
+ * the space above short glyphs in tall rows is wasted.
+ * @author Nathan Sweet
+ * @modifier Yi An */
+public class ShelfPacker implements GlyphPacker {
+	private final int pageWidth, pageHeight;
+	private final boolean allowRotation;
+	private final Array<Row> rows = new Array<>();
+	private final Rectangle rotatedPosition = new Rectangle();
+	/** The row found by the last call to find, or null if a new row is to be started. */
+	private Row foundRow;
+	/** The area the last call to fit leaves unused above the rectangle, or above the glyphs of the row it grows. Starting a new
+	 * row is counted as the most waste. */
+	private int waste;
+
+	public ShelfPacker (int pageWidth, int pageHeight) {
+		this(pageWidth, pageHeight, false);
+	}
+
+	/** @param allowRotation If true, a rectangle is turned 90° when that wastes less of its row. */
+	public ShelfPacker (int pageWidth, int pageHeight, boolean allowRotation) {
+		this.pageWidth = pageWidth;
+		this.pageHeight = pageHeight;
+		this.allowRotation = allowRotation;
+		rows.add(new Row());
+	}
+
+	public boolean find (int width, int height, Rectangle position) {
+		boolean found = fit(width, height, position);
+		if (!allowRotation || width == height) return found;
+		Row row = foundRow;
+		int uprightWaste = waste;
+		if (fit(height, width, rotatedPosition) && (!found || waste < uprightWaste)) {
+			position.setBounds(rotatedPosition);
+			return true;
+		}
+		foundRow = row;
+		return found;
+	}
+
+	private boolean fit (int width, int height, Rectangle position) {
+		Row bestRow = null;
+		// Fit in any row before the last.
+		for (int ii = 0, nn = rows.size - 1; ii < nn; ii++) {
+			Row row = rows.get(ii);
+			if (row.x + width > pageWidth) continue;
+			if (row.y + height > pageHeight) continue;
+			if (height > row.height) continue;
+			if (bestRow == null || row.height < bestRow.height) bestRow = row;
+		}
+		if (bestRow == null) {
+			// Fit in last row, increasing height.
+			Row row = rows.peek();
+			if (row.y + height > pageHeight) return false;
+			if (row.x + width <= pageWidth) {
+				bestRow = row;
+				waste = height > row.height ? (height - row.height) * row.x : (row.height - height) * width;
+			} else if (row.y + row.height + height <= pageHeight) {
+				// Fit in new row.
+				foundRow = null;
+				waste = Integer.MAX_VALUE;
+				position.setBounds(0, row.y + row.height, width, height);
+				return true;
+			} else
+				return false;
+		} else
+			waste = (bestRow.height - height) * width;
+		foundRow = bestRow;
+		position.setBounds(bestRow.x, bestRow.y, width, height);
+		return true;
+	}
+
+	public void place (Rectangle position) {
+		Row row = foundRow;
+		if (row == null) {
+			row = new Row();
+			row.y = position.y;
+			rows.add(row);
+		}
+		row.height = Math.max(row.height, position.height);
+		row.x += position.width;
+	}
+
+	static class Row {
+		int x, y, height;
+	}
+}
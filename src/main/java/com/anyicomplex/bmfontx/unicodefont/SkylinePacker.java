@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.awt.*;
+
+/** Packs glyphs on a skyline: the outline of the bottom edges of the glyphs placed so far, seen from below. A glyph goes where it
+ * ends up highest on the page, resting on the skyline. The gaps that leaves under the glyph are kept in a waste map and filled
+ * with later glyphs that fit in them. Only the skyline's segments and the waste rectangles are looked at for each glyph, which
+ * stays fast as the page fills up and packs more densely than a {@link ShelfPacker}.
+ * 
+ * <p>
+ * The algorithm is described in "A Thousand Ways to Pack the Bin" by Jukka Jylänki:
+ * <a href="https://github.com/juj/RectangleBinPack">https://github.com/juj/RectangleBinPack</a>
+ * @author Yi An */
+public class SkylinePacker implements GlyphPacker {
+	private final int pageWidth, pageHeight;
+	private final boolean allowRotation;
+	private final Array<Segment> skyline = new Array<>();
+	private final Array<Rectangle> waste = new Array<>();
+	/** Where the last call to find put the glyph: an index into the waste map, or into the skyline if wasteIndex is -1. */
+	private int wasteIndex, skylineIndex;
+
+	public SkylinePacker (int pageWidth, int pageHeight) {
+		this(pageWidth, pageHeight, false);
+	}
+
+	/** @param allowRotation If true, a glyph is turned 90° when it fits in a gap or ends up higher that way. */
+	public SkylinePacker (int pageWidth, int pageHeight, boolean allowRotation) {
+		this.pageWidth = pageWidth;
+		this.pageHeight = pageHeight;
+		this.allowRotation = allowRotation;
+		skyline.add(new Segment(0, 0, pageWidth));
+	}
+
+	public boolean find (int width, int height, Rectangle position) {
+		// Filling a gap is always better, it leaves the skyline as low as it is.
+		boolean rotate = allowRotation && width != height;
+		wasteIndex = -1;
+		int bestShortSide = Integer.MAX_VALUE, bestLongSide = Integer.MAX_VALUE;
+		boolean bestRotated = false;
+		for (int i = 0, n = waste.size; i < n; i++) {
+			Rectangle free = waste.get(i);
+			for (int r = 0; r < (rotate ? 2 : 1); r++) {
+				int w = r == 0 ? width : height, h = r == 0 ? height : width;
+				if (w > free.width || h > free.height) continue;
+				int leftoverX = free.width - w, leftoverY = free.height - h;
+				int shortSide = Math.min(leftoverX, leftoverY), longSide = Math.max(leftoverX, leftoverY);
+				if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+					wasteIndex = i;
+					bestShortSide = shortSide;
+					bestLongSide = longSide;
+					bestRotated = r == 1;
+				}
+			}
+		}
+		if (wasteIndex != -1) {
+			Rectangle free = waste.get(wasteIndex);
+			position.setBounds(free.x, free.y, bestRotated ? height : width, bestRotated ? width : height);
+			return true;
+		}
+
+		// Bottom left: where the glyph's bottom edge is highest, the narrowest segment on ties.
+		skylineIndex = -1;
+		int bestBottom = Integer.MAX_VALUE, bestWidth = Integer.MAX_VALUE, bestY = 0;
+		for (int i = 0, n = skyline.size; i < n; i++) {
+			Segment segment = skyline.get(i);
+			for (int r = 0; r < (rotate ? 2 : 1); r++) {
+				int w = r == 0 ? width : height, h = r == 0 ? height : width;
+				int y = fit(i, w, h);
+				if (y == -1) continue;
+				if (y + h < bestBottom || (y + h == bestBottom && segment.width < bestWidth)) {
+					skylineIndex = i;
+					bestBottom = y + h;
+					bestWidth = segment.width;
+					bestY = y;
+					bestRotated = r == 1;
+				}
+			}
+		}
+		if (skylineIndex == -1) return false;
+		position.setBounds(skyline.get(skylineIndex).x, bestY, bestRotated ? height : width, bestRotated ? width : height);
+		return true;
+	}
+
+	/** Returns the y coordinate a glyph would rest at with its left edge at the start of a skyline segment, or -1 if it doesn't
+	 * fit there. */
+	private int fit (int index, int width, int height) {
+		Segment segment = skyline.get(index);
+		if (segment.x + width > pageWidth) return -1;
+		int y = segment.y;
+		for (int widthLeft = width; widthLeft > 0; index++) {
+			segment = skyline.get(index);
+			y = Math.max(y, segment.y);
+			if (y + height > pageHeight) return -1;
+			widthLeft -= segment.width;
+		}
+		return y;
+	}
+
+	public void place (Rectangle position) {
+		if (wasteIndex != -1) {
+			splitWaste(waste.removeIndex(wasteIndex), position);
+			return;
+		}
+		addWaste(skylineIndex, position);
+
+		skyline.insert(skylineIndex, new Segment(position.x, position.y + position.height, position.width));
+		// Cut the segments the glyph covers.
+		for (int i = skylineIndex + 1; i < skyline.size; i++) {
+			Segment previous = skyline.get(i - 1), segment = skyline.get(i);
+			int overlap = previous.x + previous.width - segment.x;
+			if (overlap <= 0) break;
+			segment.x += overlap;
+			segment.width -= overlap;
+			if (segment.width > 0) break;
+			skyline.removeIndex(i);
+			i--;
+		}
+		// Merge neighbours at the same height.
+		for (int i = 0; i < skyline.size - 1; i++) {
+			Segment segment = skyline.get(i), next = skyline.get(i + 1);
+			if (segment.y == next.y) {
+				segment.width += next.width;
+				skyline.removeIndex(i + 1);
+				i--;
+			}
+		}
+	}
+
+	/** Adds the gaps between the skyline and the bottom of a glyph about to be placed on it to the waste map. */
+	private void addWaste (int index, Rectangle position) {
+		int left = position.x, right = position.x + position.width;
+		for (int i = index, n = skyline.size; i < n; i++) {
+			Segment segment = skyline.get(i);
+			if (segment.x >= right || segment.x + segment.width <= left) break;
+			int segmentRight = Math.min(right, segment.x + segment.width);
+			if (position.y > segment.y) waste.add(new Rectangle(segment.x, segment.y, segmentRight - segment.x, position.y - segment.y));
+		}
+	}
+
+	/** Puts what is left of a waste rectangle around a glyph placed in its top left corner back in the waste map, split along the
+	 * shorter leftover side so the larger piece stays as large as possible. */
+	private void splitWaste (Rectangle free, Rectangle used) {
+		int leftoverX = free.width - used.width, leftoverY = free.height - used.height;
+		boolean horizontal = leftoverX <= leftoverY;
+		if (leftoverY > 0) {
+			waste.add(new Rectangle(free.x, free.y + used.height, horizontal ? free.width : used.width, leftoverY));
+		}
+		if (leftoverX > 0) {
+			waste.add(new Rectangle(free.x + used.width, free.y, leftoverX, horizontal ? used.height : free.height));
+		}
+	}
+
+	/** A horizontal piece of the skyline. Everything above it is taken. */
+	static private class Segment {
+		int x, y, width;
+
+		Segment (int x, int y, int width) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+		}
+	}
+}
@@ -39,6 +39,7 @@ package com.anyicomplex.bmfontx.unicodefont;
 
 import com.anyicomplex.bmfontx.Settings;
 import com.anyicomplex.bmfontx.unicodefont.effects.Effect;
+import com.anyicomplex.bmfontx.unicodefont.effects.MultiChannelDistanceFieldEffect;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
@@ -51,6 +52,8 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Sort;
 import org.lwjgl.opengl.GL11;
 
 import java.awt.*;
@@ -62,6 +65,10 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 // BOZO - Look at actual pixels to determine glyph size, current size sometimes selects blank pixels (eg Calibri, 45, 'o').
 
@@ -83,12 +90,29 @@ public class UnicodeFont {
 	private int ascent, descent, leading, spaceWidth;
 	private final Glyph[][] glyphs = new Glyph[PAGES][];
 	private final Array<GlyphPage> glyphPages = new Array<>();
+	/** The images stored on all glyph pages, to store each image only once. */
+	final GlyphIndex glyphIndex = new GlyphIndex();
 	private final Array<Glyph> queuedGlyphs = new Array<>(256);
 	private final Array<Effect> effects = new Array<>();
 	private int paddingTop, paddingLeft, paddingBottom, paddingRight, paddingAdvanceX, paddingAdvanceY;
 	private Glyph missingGlyph;
 	private int glyphPageWidth = 512, glyphPageHeight = 512;
 	RenderType renderType;
+	private PackingStrategy packingStrategy = PackingStrategy.Shelf;
+	private PageSizing pageSizing = PageSizing.Fixed;
+	private int autoPageCount = 1;
+	private GlyphOrder glyphOrder = GlyphOrder.Height;
+	private boolean optimizePacking;
+	/** The page size, order and strategy used for the glyph pages. They start as the settings above and may be replaced by the
+	 * automatic page sizing or packing optimization, which leaves the settings as they are. */
+	private int chosenPageWidth = 512, chosenPageHeight = 512;
+	private GlyphOrder chosenGlyphOrder = GlyphOrder.Height;
+	private PackingStrategy chosenPackingStrategy = PackingStrategy.Shelf;
+	private boolean trimGlyphs;
+	private boolean packChannels;
+	private boolean rotateGlyphs;
+	private int gutter;
+	private GutterFill gutterFill = GutterFill.Extrude;
 
 	BitmapFont bitmapFont;
 	private FreeTypeFontGenerator generator;
@@ -172,6 +196,16 @@ public class UnicodeFont {
 		paddingAdvanceY = settings.getPaddingAdvanceY();
 		glyphPageWidth = settings.getGlyphPageWidth();
 		glyphPageHeight = settings.getGlyphPageHeight();
+		packingStrategy = settings.getPackingStrategy();
+		pageSizing = settings.getPageSizing();
+		autoPageCount = settings.getAutoPageCount();
+		glyphOrder = settings.getGlyphOrder();
+		optimizePacking = settings.isOptimizePacking();
+		trimGlyphs = settings.isTrimGlyphs();
+		packChannels = settings.isPackChannels();
+		rotateGlyphs = settings.isRotateGlyphs();
+		gutter = settings.getGutter();
+		gutterFill = settings.getGutterFill();
 		effects.addAll(settings.getEffects());
 	}
 
@@ -240,7 +274,26 @@ public class UnicodeFont {
 			}
 		}
 
-		queuedGlyphs.sort(heightComparator);
+		if (glyphPages.isEmpty()) {
+			chosenPageWidth = glyphPageWidth;
+			chosenPageHeight = glyphPageHeight;
+			chosenGlyphOrder = glyphOrder;
+			chosenPackingStrategy = packingStrategy;
+		}
+		queuedGlyphs.sort(chosenGlyphOrder.comparator);
+
+		if (glyphPages.isEmpty()) {
+			if (optimizePacking) {
+				optimizePacking();
+				queuedGlyphs.sort(chosenGlyphOrder.comparator);
+			} else if (pageSizing != PageSizing.Fixed) {
+				Dimension size = findPageSize(queuedGlyphs, packingStrategy);
+				if (size != null) {
+					chosenPageWidth = size.width;
+					chosenPageHeight = size.height;
+				}
+			}
+		}
 
 		// Add to existing pages.
 		for (GlyphPage glyphPage : glyphPages) {
@@ -250,20 +303,116 @@ public class UnicodeFont {
 
 		// Add to new pages.
 		while (!queuedGlyphs.isEmpty()) {
-			GlyphPage glyphPage = new GlyphPage(this, glyphPageWidth, glyphPageHeight);
+			GlyphPage glyphPage = new GlyphPage(this, chosenPageWidth, chosenPageHeight);
 			glyphPages.add(glyphPage);
-			maxGlyphsToLoad -= glyphPage.loadGlyphs(queuedGlyphs, maxGlyphsToLoad);
+			int loadedCount = glyphPage.loadGlyphs(queuedGlyphs, maxGlyphsToLoad);
+			if (loadedCount == 0) {
+				// Another page would take nothing either.
+				glyphPages.pop();
+				glyphPage.dispose();
+				throw new GdxRuntimeException("No queued glyph fits on an empty " + chosenPageWidth + "x" + chosenPageHeight
+					+ " page, starting with: " + queuedGlyphs.first().getCodePoint());
+			}
+			maxGlyphsToLoad -= loadedCount;
+			if (glyphPage.getGlyphs().isEmpty()) {
+				// All its glyphs were found on earlier pages.
+				glyphPages.pop();
+				glyphPage.dispose();
+			}
 			if (maxGlyphsToLoad == 0) return true;
 		}
 
 		return true;
 	}
 
+	/** Packs the queued glyphs without rendering them in every {@link GlyphOrder} with every {@link PackingStrategy}, in parallel,
+	 * and keeps the order, strategy and, if the {@link PageSizing} is automatic, page size of the best result: the one that takes
+	 * the least texture area, then the fewest pages, then leaves the least on the last page so the others are fullest. */
+	private void optimizePacking () {
+		final int maxPages = queuedGlyphs.size;
+		Array<Callable<PackingTrial>> trials = new Array<>();
+		for (final GlyphOrder order : GlyphOrder.values()) {
+			for (final PackingStrategy strategy : PackingStrategy.values()) {
+				trials.add(new Callable<PackingTrial>() {
+					public PackingTrial call () {
+						Array<Glyph> glyphs = new Array<>(queuedGlyphs);
+						// Array.sort shares one Sort instance, which trials running at the same time would corrupt.
+						new Sort().sort(glyphs, order.comparator);
+						PackingTrial trial = new PackingTrial(order, strategy, glyphPageWidth, glyphPageHeight);
+						if (pageSizing != PageSizing.Fixed) {
+							Dimension size = findPageSize(glyphs, strategy);
+							if (size != null) {
+								trial.pageWidth = size.width;
+								trial.pageHeight = size.height;
+							}
+						}
+						IntArray pageAreas = new IntArray();
+						trial.pages = GlyphPage.countPages(UnicodeFont.this, glyphs, strategy, trial.pageWidth, trial.pageHeight, maxPages,
+							pageAreas);
+						trial.lastPageArea = pageAreas.size == 0 ? 0 : pageAreas.peek();
+						return trial;
+					}
+				});
+			}
+		}
+
+		PackingTrial best = null;
+		ExecutorService executor = GlyphPage.getRenderExecutor();
+		Array<Future<PackingTrial>> results = new Array<>(trials.size);
+		try {
+			for (Callable<PackingTrial> trial : trials)
+				results.add(executor.submit(trial));
+			for (Future<PackingTrial> result : results) {
+				PackingTrial trial = result.get();
+				if (best == null || trial.isBetterThan(best)) best = trial;
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException ex) {
+			throw new GdxRuntimeException("Error packing glyphs.", ex.getCause());
+		} finally {
+			// The threads are shared, trials nobody waits for anymore shouldn't hold them.
+			for (Future<PackingTrial> result : results)
+				result.cancel(true);
+		}
+		chosenGlyphOrder = best.order;
+		chosenPackingStrategy = best.strategy;
+		chosenPageWidth = best.pageWidth;
+		chosenPageHeight = best.pageHeight;
+	}
+
+	/** Returns the smallest power of two size, no larger than the glyph page size set, on which the glyphs fit in
+	 * {@link #getAutoPageCount()} pages, or null if they don't fit that way at all. Sizes with the same area are tried squarest
+	 * first. */
+	private Dimension findPageSize (Array<Glyph> glyphs, PackingStrategy strategy) {
+		Array<Dimension> sizes = new Array<>();
+		for (int width = MIN_AUTO_PAGE_SIZE; width <= glyphPageWidth; width <<= 1) {
+			for (int height = MIN_AUTO_PAGE_SIZE; height <= glyphPageHeight; height <<= 1) {
+				if (width == height || pageSizing == PageSizing.Auto) sizes.add(new Dimension(width, height));
+			}
+		}
+		new Sort().sort(sizes, new Comparator<Dimension>() {
+			public int compare (Dimension o1, Dimension o2) {
+				int area1 = o1.width * o1.height, area2 = o2.width * o2.height;
+				if (area1 != area2) return area1 < area2 ? -1 : 1;
+				int skew1 = Math.abs(o1.width - o1.height), skew2 = Math.abs(o2.width - o2.height);
+				if (skew1 != skew2) return skew1 - skew2;
+				return o2.width - o1.width;
+			}
+		});
+		for (Dimension size : sizes) {
+			if (GlyphPage.countPages(this, glyphs, strategy, size.width, size.height, autoPageCount, null) <= autoPageCount)
+				return size;
+		}
+		return null;
+	}
+
 	/** Releases all resources used by this UnicodeFont. This method should be called when this UnicodeFont instance is no longer
 	 * needed. */
 	public void dispose () {
 		for (GlyphPage page : glyphPages) {
-			page.getTexture().dispose();
+			page.dispose();
 		}
 		if (bitmapFont != null) {
 			bitmapFont.dispose();
@@ -348,8 +497,8 @@ public class UnicodeFont {
 				startNewLine = false;
 			}
 
-			if (glyph.getTexture() == null && missingGlyph != null && glyph.isMissing()) glyph = missingGlyph;
-			if (glyph.getTexture() != null) {
+			if (glyph.getPage() == null && missingGlyph != null && glyph.isMissing()) glyph = missingGlyph;
+			if (glyph.getPage() != null) {
 				// Draw glyph, only binding a new glyph page texture when necessary.
 				Texture texture = glyph.getTexture();
 				if (lastBind != null && lastBind != texture) {
@@ -361,16 +510,29 @@ public class UnicodeFont {
 					GL11.glBegin(GL11.GL_QUADS);
 					lastBind = texture;
 				}
-				int glyphX = bounds.x + extraX;
-				int glyphY = bounds.y + extraY;
-				GL11.glTexCoord2f(glyph.getU(), glyph.getV());
-				GL11.glVertex3f(glyphX, glyphY, 0);
-				GL11.glTexCoord2f(glyph.getU(), glyph.getV2());
-				GL11.glVertex3f(glyphX, glyphY + glyph.getHeight(), 0);
-				GL11.glTexCoord2f(glyph.getU2(), glyph.getV2());
-				GL11.glVertex3f(glyphX + glyph.getWidth(), glyphY + glyph.getHeight(), 0);
-				GL11.glTexCoord2f(glyph.getU2(), glyph.getV());
-				GL11.glVertex3f(glyphX + glyph.getWidth(), glyphY, 0);
+				int glyphX = bounds.x + extraX + glyph.getTrimX();
+				int glyphY = bounds.y + extraY + glyph.getTrimY();
+				int glyphWidth = glyph.getTrimmedWidth(), glyphHeight = glyph.getTrimmedHeight();
+				if (glyph.isRotated()) {
+					// Stored turned counterclockwise, so the glyph's top left is at the page region's bottom left.
+					GL11.glTexCoord2f(glyph.getU(), glyph.getV2());
+					GL11.glVertex3f(glyphX, glyphY, 0);
+					GL11.glTexCoord2f(glyph.getU2(), glyph.getV2());
+					GL11.glVertex3f(glyphX, glyphY + glyphHeight, 0);
+					GL11.glTexCoord2f(glyph.getU2(), glyph.getV());
+					GL11.glVertex3f(glyphX + glyphWidth, glyphY + glyphHeight, 0);
+					GL11.glTexCoord2f(glyph.getU(), glyph.getV());
+					GL11.glVertex3f(glyphX + glyphWidth, glyphY, 0);
+				} else {
+					GL11.glTexCoord2f(glyph.getU(), glyph.getV());
+					GL11.glVertex3f(glyphX, glyphY, 0);
+					GL11.glTexCoord2f(glyph.getU(), glyph.getV2());
+					GL11.glVertex3f(glyphX, glyphY + glyphHeight, 0);
+					GL11.glTexCoord2f(glyph.getU2(), glyph.getV2());
+					GL11.glVertex3f(glyphX + glyphWidth, glyphY + glyphHeight, 0);
+					GL11.glTexCoord2f(glyph.getU2(), glyph.getV());
+					GL11.glVertex3f(glyphX + glyphWidth, glyphY, 0);
+				}
 			}
 
 			if (glyphIndex > 0) extraX += paddingRight + paddingLeft + paddingAdvanceX;
@@ -589,26 +751,183 @@ public class UnicodeFont {
 		return leading;
 	}
 
-	/** Returns the width of the backing textures. */
+	/** Returns the width of the backing textures set, see {@link #getChosenPageWidth()} for the width used. */
 	public int getGlyphPageWidth () {
 		return glyphPageWidth;
 	}
 
-	/** Sets the width of the backing textures. Default is 512. */
+	/** Sets the width of the backing textures, or the largest width if the {@link PageSizing} is automatic. Default is 512. */
 	public void setGlyphPageWidth (int glyphPageWidth) {
 		this.glyphPageWidth = glyphPageWidth;
 	}
 
-	/** Returns the height of the backing textures. */
+	/** Returns the height of the backing textures set, see {@link #getChosenPageHeight()} for the height used. */
 	public int getGlyphPageHeight () {
 		return glyphPageHeight;
 	}
 
-	/** Sets the height of the backing textures. Default is 512. */
+	/** Sets the height of the backing textures, or the largest height if the {@link PageSizing} is automatic. Default is 512. */
 	public void setGlyphPageHeight (int glyphPageHeight) {
 		this.glyphPageHeight = glyphPageHeight;
 	}
 
+	/** Returns how glyphs are arranged on the backing textures, see {@link #getChosenPackingStrategy()} for the strategy used. */
+	public PackingStrategy getPackingStrategy () {
+		return packingStrategy;
+	}
+
+	/** Sets how glyphs are arranged on the backing textures. Only affects pages created afterwards. Default is
+	 * {@link PackingStrategy#Shelf}. */
+	public void setPackingStrategy (PackingStrategy packingStrategy) {
+		if (packingStrategy == null) throw new IllegalArgumentException("packingStrategy cannot be null.");
+		this.packingStrategy = packingStrategy;
+	}
+
+	/** Returns how the size of the backing textures is chosen. */
+	public PageSizing getPageSizing () {
+		return pageSizing;
+	}
+
+	/** Sets how the size of the backing textures is chosen. With an automatic sizing, the size is chosen when the first page is
+	 * created, see {@link #getChosenPageWidth()}. Default is {@link PageSizing#Fixed}. */
+	public void setPageSizing (PageSizing pageSizing) {
+		if (pageSizing == null) throw new IllegalArgumentException("pageSizing cannot be null.");
+		this.pageSizing = pageSizing;
+	}
+
+	/** Returns the number of pages an automatic {@link PageSizing} tries to fit the glyphs in. */
+	public int getAutoPageCount () {
+		return autoPageCount;
+	}
+
+	/** Sets the number of pages an automatic {@link PageSizing} tries to fit the glyphs in. Default is 1. */
+	public void setAutoPageCount (int autoPageCount) {
+		if (autoPageCount < 1) throw new IllegalArgumentException("autoPageCount must be at least 1: " + autoPageCount);
+		this.autoPageCount = autoPageCount;
+	}
+
+	/** Returns the order glyphs are packed in, see {@link #getChosenGlyphOrder()} for the order used. */
+	public GlyphOrder getGlyphOrder () {
+		return glyphOrder;
+	}
+
+	/** Sets the order glyphs are packed in. Default is {@link GlyphOrder#Height}. */
+	public void setGlyphOrder (GlyphOrder glyphOrder) {
+		if (glyphOrder == null) throw new IllegalArgumentException("glyphOrder cannot be null.");
+		this.glyphOrder = glyphOrder;
+	}
+
+	/** Returns true if the glyph order and packing strategy are picked by trying them all. */
+	public boolean isOptimizePacking () {
+		return optimizePacking;
+	}
+
+	/** If true, the first time glyphs are loaded they are packed without rendering in every {@link GlyphOrder} with every
+	 * {@link PackingStrategy}, on as many threads as there are processors, and the order and strategy that need the fewest and
+	 * fullest pages are used instead of the ones set. Default is false. */
+	public void setOptimizePacking (boolean optimizePacking) {
+		this.optimizePacking = optimizePacking;
+	}
+
+	/** Returns the width of the glyph pages, which an automatic {@link PageSizing} may have made smaller than the
+	 * {@link #getGlyphPageWidth() width set}. Only known once glyphs have been loaded. */
+	public int getChosenPageWidth () {
+		return chosenPageWidth;
+	}
+
+	/** Returns the height of the glyph pages, which an automatic {@link PageSizing} may have made smaller than the
+	 * {@link #getGlyphPageHeight() height set}. Only known once glyphs have been loaded. */
+	public int getChosenPageHeight () {
+		return chosenPageHeight;
+	}
+
+	/** Returns the order the glyph pages were packed in, which {@link #setOptimizePacking(boolean) packing optimization} may
+	 * have picked instead of the {@link #getGlyphOrder() order set}. Only known once glyphs have been loaded. */
+	public GlyphOrder getChosenGlyphOrder () {
+		return chosenGlyphOrder;
+	}
+
+	/** Returns how glyphs are arranged on the glyph pages, which {@link #setOptimizePacking(boolean) packing optimization} may
+	 * have picked instead of the {@link #getPackingStrategy() strategy set}. Only known once glyphs have been loaded. */
+	public PackingStrategy getChosenPackingStrategy () {
+		return chosenPackingStrategy;
+	}
+
+	/** Returns true if the transparent borders of glyph images are cut off before they are stored. */
+	public boolean isTrimGlyphs () {
+		return trimGlyphs;
+	}
+
+	/** If true, every glyph is rendered before it is packed and only the smallest rectangle holding its visible pixels is stored
+	 * on a glyph page. The offset of that rectangle is added to the glyph's x and y offset when saving. Default is false. */
+	public void setTrimGlyphs (boolean trimGlyphs) {
+		this.trimGlyphs = trimGlyphs;
+	}
+
+	/** Returns true if glyphs are stored in single channels of the glyph pages when possible. */
+	public boolean isPackChannels () {
+		return packChannels;
+	}
+
+	/** If true, the glyph pages hold four independent sets of glyphs, one in each of the blue, green, red and alpha channels, and
+	 * only the alpha of a glyph's image is stored. Meant for single color fonts, which are drawn with a shader that picks the
+	 * glyph's channel, and only used if no effect needs all channels, see {@link #isChannelPacked()}. The sample text preview
+	 * can't show such glyphs correctly. Only affects pages created afterwards. Default is false. */
+	public void setPackChannels (boolean packChannels) {
+		this.packChannels = packChannels;
+	}
+
+	/** Returns true if glyphs are stored in single channels: {@link #isPackChannels()} is on and there is no multi-channel
+	 * distance field effect, which needs all channels of a glyph. */
+	public boolean isChannelPacked () {
+		if (!packChannels) return false;
+		if (renderType != RenderType.FreeType) {
+			// Not the Array iterator, it is shared and packing trials call this at the same time.
+			for (int i = 0, n = effects.size; i < n; i++)
+				if (effects.get(i) instanceof MultiChannelDistanceFieldEffect) return false;
+		}
+		return true;
+	}
+
+	/** Returns true if glyphs may be stored turned 90° on the glyph pages. */
+	public boolean isRotateGlyphs () {
+		return rotateGlyphs;
+	}
+
+	/** If true, the packer may store a glyph turned 90° counterclockwise when it fits better that way, see
+	 * {@link Glyph#isRotated()}. The BMFont file is still saved with all font metrics, and each of its chars gets a rotate field
+	 * after chnl, 1 if the glyph is turned. A libGDX texture atlas with a region for every glyph's image is saved next to it.
+	 * libGDX's BitmapFont ignores the rotate field and draws turned glyphs sideways. Only affects pages created afterwards. Default
+	 * is false. */
+	public void setRotateGlyphs (boolean rotateGlyphs) {
+		this.rotateGlyphs = rotateGlyphs;
+	}
+
+	/** Returns the space in pixels reserved on every side of each glyph on the glyph pages. */
+	public int getGutter () {
+		return gutter;
+	}
+
+	/** Sets the space in pixels reserved on every side of each glyph on the glyph pages, filled as the {@link GutterFill} says.
+	 * Unlike padding it is not part of the glyphs: their rectangles in the saved font don't include it. It keeps glyphs from
+	 * bleeding into each other when a game samples the pages with linear filtering or mipmaps. Only affects pages created
+	 * afterwards. Default is 0. */
+	public void setGutter (int gutter) {
+		if (gutter < 0) throw new IllegalArgumentException("gutter cannot be negative: " + gutter);
+		this.gutter = gutter;
+	}
+
+	/** Returns how the gutter around each glyph is filled. */
+	public GutterFill getGutterFill () {
+		return gutterFill;
+	}
+
+	/** Sets how the gutter around each glyph is filled. Default is {@link GutterFill#Extrude}. */
+	public void setGutterFill (GutterFill gutterFill) {
+		if (gutterFill == null) throw new IllegalArgumentException("gutterFill cannot be null.");
+		this.gutterFill = gutterFill;
+	}
+
 	/** Returns the GlyphPages for this UnicodeFont. */
 	public Array<GlyphPage> getGlyphPages () {
 		return glyphPages;
@@ -705,13 +1024,102 @@ public class UnicodeFont {
 	}
 
 	/** Sorts glyphs by height, tallest first. */
-	private static final Comparator heightComparator = new Comparator() {
-		public int compare (Object o1, Object o2) {
-			return ((Glyph)o2).getHeight() - ((Glyph)o1).getHeight();
+	private static final Comparator<Glyph> heightComparator = new Comparator<Glyph>() {
+		public int compare (Glyph o1, Glyph o2) {
+			return o2.getHeight() - o1.getHeight();
+		}
+	};
+
+	/** Sorts glyphs by area, largest first. */
+	private static final Comparator<Glyph> areaComparator = new Comparator<Glyph>() {
+		public int compare (Glyph o1, Glyph o2) {
+			return o2.getWidth() * o2.getHeight() - o1.getWidth() * o1.getHeight();
 		}
 	};
 
+	/** Sorts glyphs by their longer side, longest first. */
+	private static final Comparator<Glyph> maxSideComparator = new Comparator<Glyph>() {
+		public int compare (Glyph o1, Glyph o2) {
+			return Math.max(o2.getWidth(), o2.getHeight()) - Math.max(o1.getWidth(), o1.getHeight());
+		}
+	};
+
+	/** Sorts glyphs by perimeter, longest first. */
+	private static final Comparator<Glyph> perimeterComparator = new Comparator<Glyph>() {
+		public int compare (Glyph o1, Glyph o2) {
+			return o2.getWidth() + o2.getHeight() - o1.getWidth() - o1.getHeight();
+		}
+	};
+
+	/** The result of packing glyphs without rendering them, see {@link #optimizePacking()}. */
+	static private class PackingTrial {
+		final GlyphOrder order;
+		final PackingStrategy strategy;
+		int pageWidth, pageHeight, pages, lastPageArea;
+
+		PackingTrial (GlyphOrder order, PackingStrategy strategy, int pageWidth, int pageHeight) {
+			this.order = order;
+			this.strategy = strategy;
+			this.pageWidth = pageWidth;
+			this.pageHeight = pageHeight;
+		}
+
+		boolean isBetterThan (PackingTrial other) {
+			long area = (long)pageWidth * pageHeight * pages, otherArea = (long)other.pageWidth * other.pageHeight * other.pages;
+			if (area != otherArea) return area < otherArea;
+			if (pages != other.pages) return pages < other.pages;
+			return lastPageArea < other.lastPageArea;
+		}
+	}
+
+	/** The smallest page size an automatic {@link PageSizing} picks. */
+	static public final int MIN_AUTO_PAGE_SIZE = 16;
+
 	public enum RenderType {
 		Java, Native, FreeType
 	}
+
+	/** How glyphs are arranged on a {@link GlyphPage}, see {@link GlyphPacker}. */
+	public enum PackingStrategy {
+		/** Rows of glyphs, see {@link ShelfPacker}. */
+		Shelf,
+		/** Glyphs resting on the ones below, see {@link SkylinePacker}. */
+		Skyline,
+		/** See {@link MaxRectsPacker.Heuristic#BestShortSideFit}. */
+		MaxRectsBestShortSideFit,
+		/** See {@link MaxRectsPacker.Heuristic#BestAreaFit}. */
+		MaxRectsBestAreaFit,
+		/** See {@link MaxRectsPacker.Heuristic#ContactPoint}. */
+		MaxRectsContactPoint
+	}
+
+	/** The order glyphs are packed in. Large glyphs are packed first, they are the hardest to fit in later. */
+	public enum GlyphOrder {
+		Height(heightComparator), Area(areaComparator), MaxSide(maxSideComparator), Perimeter(perimeterComparator);
+
+		final Comparator<Glyph> comparator;
+
+		GlyphOrder (Comparator<Glyph> comparator) {
+			this.comparator = comparator;
+		}
+	}
+
+	/** How the size of the backing textures is chosen. The automatic sizings pack the queued glyphs without rendering them to find
+	 * the smallest size that holds them in {@link #getAutoPageCount()} pages. */
+	public enum PageSizing {
+		/** The page width and height are used as they are. */
+		Fixed,
+		/** The smallest square power of two size. */
+		AutoSquare,
+		/** The smallest power of two width and height. */
+		Auto
+	}
+
+	/** How the {@link #getGutter() gutter} around each glyph is filled. */
+	public enum GutterFill {
+		/** Left transparent. */
+		Transparent,
+		/** The glyph's edge pixels are repeated outwards, so filtering at the edge only mixes in the glyph's own colors. */
+		Extrude
+	}
 }
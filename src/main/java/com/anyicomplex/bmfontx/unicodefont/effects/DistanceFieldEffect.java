@@ -39,12 +39,16 @@ package com.anyicomplex.bmfontx.unicodefont.effects;
 
 import com.anyicomplex.bmfontx.distancefield.DistanceFieldGenerator;
 import com.anyicomplex.bmfontx.unicodefont.Glyph;
+import com.anyicomplex.bmfontx.unicodefont.GlyphPage;
 import com.anyicomplex.bmfontx.unicodefont.UnicodeFont;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
 
 /** A filter to create a distance field. The resulting font can be rendered with a simple custom shader to draw bitmap fonts that
  * remain crisp even under high magnification.
@@ -59,38 +63,149 @@ public class DistanceFieldEffect implements ConfigurableEffect {
 	private Color color = Color.WHITE;
 	private int scale = 1;
 	private float spread = 1;
+	/** One of the {@link DistanceFieldGenerator.Engine} names, or {@link #OUTLINE}. */
+	private String engine = DistanceFieldGenerator.Engine.Separable.name();
 
 	/** Draws the glyph to the given image, upscaled by a factor of {@link #scale}.
 	 * 
-	 * @param image the image to draw to
-	 * @param glyph the glyph to draw */
-	private void drawGlyph (BufferedImage image, Glyph glyph) {
-		Graphics2D inputG = (Graphics2D)image.getGraphics();
+	 * @param inputG the graphics of the image to draw to
+	 * @param shape the shape of the glyph to draw */
+	private void drawGlyph (Graphics2D inputG, Shape shape) {
 		inputG.setTransform(AffineTransform.getScaleInstance(scale, scale));
-		// We don't really want anti-aliasing (we'll discard it anyway),
-		// but accurate positioning might improve the result slightly
-		inputG.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-		inputG.setColor(Color.WHITE);
-		inputG.fill(glyph.getShape());
+		inputG.fill(shape);
 	}
 
 	@Override
 	public void draw (BufferedImage image, Graphics2D g, UnicodeFont unicodeFont, Glyph glyph) {
-		BufferedImage input = new BufferedImage(scale * glyph.getWidth(), scale * glyph.getHeight(),
-			BufferedImage.TYPE_BYTE_BINARY);
-		drawGlyph(input, glyph);
+		int width = glyph.getWidth(), height = glyph.getHeight();
+		Shape shape = glyph.getShape();
+		RawDistanceCache.Key key = new RawDistanceCache.Key(shape, width, height, scale, engine);
+		float[] signedDistances = rawDistances.get(key, spread);
+		if (signedDistances == null) {
+			// Keep distances for a larger spread than needed, so that spread can be tuned without regenerating them. Brute force
+			// and outline search a window as large as the spread around every pixel, so they get slower with it and don't.
+			float retainedSpread = BRUTE_FORCE.equals(engine) || OUTLINE.equals(engine) ? spread
+				: Math.max(spread, RETAINED_SPREAD);
+			signedDistances = signedDistances(shape, width, height, retainedSpread);
+			rawDistances.put(key, signedDistances, retainedSpread);
+		}
+		BufferedImage distanceField = writeDistanceField(signedDistances, width, height);
+		g.drawImage(distanceField, 0, 0, width, height, 0, 0, width, height, null);
+	}
+
+	/** Computes the signed distances of the glyph, in the generator's units: input pixels, or output pixels for the outline
+	 * engine.
+	 * @param generateSpread the spread to compute the distances for, in output pixels */
+	private float[] signedDistances (Shape shape, int width, int height, float generateSpread) {
+		Buffers buffers = threadBuffers.get();
+		DistanceFieldGenerator generator = buffers.generator;
+		// Upscaled glyphs can be millions of pixels, small ones are kept on this thread by the generator anyway. On a render
+		// thread the other processors are busy with other glyphs.
+		generator.setParallelism(GlyphPage.isRenderThread() ? 1 : Runtime.getRuntime().availableProcessors());
+
+		if (OUTLINE.equals(engine)) {
+			// Exact distances to the glyph's curves, no upscaled image needed so scale doesn't matter.
+			generator.setSpread(generateSpread);
+			return generator.generateSignedDistances(shape, width, height);
+		}
+		boolean coverage = COVERAGE.equals(engine);
+		BufferedImage input = buffers.input(scale * width, scale * height, coverage);
+		drawGlyph(coverage ? buffers.grayGraphics : buffers.binaryGraphics, shape);
 
-		DistanceFieldGenerator generator = new DistanceFieldGenerator();
-		generator.setColor(color);
 		generator.setDownscale(scale);
 		// We multiply spread by the scale, so that changing scale will only affect accuracy
 		// and not spread in the output image.
-		generator.setSpread(scale * spread);
-		BufferedImage distanceField = generator.generateDistanceField(input);
+		generator.setSpread(scale * generateSpread);
+		generator.setEngine(DistanceFieldGenerator.Engine.valueOf(engine));
+		return generator.generateSignedDistances(input, scale * width, scale * height);
+	}
 
-		g.drawImage(distanceField, new AffineTransform(), null);
+	/** Turns signed distances into a distance field with the current spread and color.
+	 * @return an image whose top left {@code width * height} pixels hold the distance field, reused by the next call on the same
+	 *         thread */
+	private BufferedImage writeDistanceField (float[] signedDistances, int width, int height) {
+		Buffers buffers = threadBuffers.get();
+		DistanceFieldGenerator generator = buffers.generator;
+		generator.setColor(color);
+		generator.setSpread(OUTLINE.equals(engine) ? spread : scale * spread);
+		BufferedImage distanceField = buffers.output(width, height);
+		generator.writeDistanceField(signedDistances, width, height, distanceField);
+		return distanceField;
 	}
 
+	/** The generator and images used by one thread, reused for every glyph it draws so that generating a distance field doesn't
+	 * allocate anything once the images are large enough. Images grow in powers of two, so a few sizes cover all glyphs. */
+	static private class Buffers {
+		final DistanceFieldGenerator generator = new DistanceFieldGenerator();
+		BufferedImage binaryInput, grayInput, output;
+		Graphics2D binaryGraphics, grayGraphics;
+
+		/** Returns a cleared image of at least the given size for the glyph to be drawn to. The coverage engine gets an
+		 * anti-aliased gray image, the others a binary one. */
+		BufferedImage input (int width, int height, boolean coverage) {
+			BufferedImage input = coverage ? grayInput : binaryInput;
+			if (input == null || input.getWidth() < width || input.getHeight() < height) {
+				if (input != null) (coverage ? grayGraphics : binaryGraphics).dispose();
+				input = new BufferedImage(size(width, input == null ? 0 : input.getWidth()),
+					size(height, input == null ? 0 : input.getHeight()),
+					coverage ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_BYTE_BINARY);
+				Graphics2D inputG = (Graphics2D)input.getGraphics();
+				// The binary engines don't want anti-aliasing (they'll discard it anyway),
+				// but accurate positioning might improve the result slightly
+				inputG.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+				if (coverage) {
+					// The coverage engine finds the edges from the anti-aliasing, so it has to be exact.
+					inputG.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+					inputG.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+				}
+				inputG.setColor(Color.WHITE);
+				if (coverage) {
+					grayInput = input;
+					grayGraphics = inputG;
+				} else {
+					binaryInput = input;
+					binaryGraphics = inputG;
+				}
+			} else {
+				// Only the rows the glyph covers are read, so only those need clearing.
+				byte[] data = ((DataBufferByte)input.getRaster().getDataBuffer()).getData();
+				Arrays.fill(data, 0, Math.min(data.length, height * (data.length / input.getHeight())), (byte)0);
+			}
+			return input;
+		}
+
+		/** Returns an image of at least the given size for the distance field to be written to. */
+		BufferedImage output (int width, int height) {
+			if (output == null || output.getWidth() < width || output.getHeight() < height) {
+				output = new BufferedImage(size(width, output == null ? 0 : output.getWidth()),
+					size(height, output == null ? 0 : output.getHeight()), BufferedImage.TYPE_4BYTE_ABGR);
+			}
+			return output;
+		}
+
+		/** Rounds a dimension up to its size class, never shrinking an image that is already larger. */
+		static private int size (int needed, int current) {
+			return Math.max(current, MathUtils.nextPowerOfTwo(Math.max(64, needed)));
+		}
+	}
+
+	static private final ThreadLocal<Buffers> threadBuffers = new ThreadLocal<Buffers>() {
+		protected Buffers initialValue () {
+			return new Buffers();
+		}
+	};
+
+	/** Engine value that computes the distance field from the glyph's outline instead of an upscaled image. */
+	static private final String OUTLINE = "Outline";
+	static private final String COVERAGE = DistanceFieldGenerator.Engine.Coverage.name();
+	static private final String BRUTE_FORCE = DistanceFieldGenerator.Engine.BruteForce.name();
+	/** The smallest spread, in output pixels, that distances are kept for. */
+	static private final float RETAINED_SPREAD = 8;
+
+	/** Distances of the glyphs drawn so far, so that changing the spread or color only has to normalize them again. Cleared when
+	 * the scale or engine changes, since entries for the others are never used again. */
+	private final RawDistanceCache rawDistances = new RawDistanceCache(64 * 1024 * 1024);
+
 	@Override
 	public String toString () {
 		return "Distance field";
@@ -104,11 +219,17 @@ public class DistanceFieldEffect implements ConfigurableEffect {
 			"The distance field is computed from an image larger than the output glyph by this factor. Set this to a higher value for more accuracy, but slower font generation."));
 		values.add(EffectUtils.floatValue("Spread", spread, 1.0f, Float.MAX_VALUE,
 			"The maximum distance from edges where the effect of the distance field is seen. Set this to about half the width of lines in your output font."));
+		values.add(EffectUtils.optionValue("Engine", engine,
+			new String[][] {{"Brute force", DistanceFieldGenerator.Engine.BruteForce.name()},
+				{"Exact EDT", DistanceFieldGenerator.Engine.Separable.name()}, {"Anti-aliased EDT", COVERAGE}, {"Outline", OUTLINE}},
+			"The algorithm used to find the nearest edge. Brute force and exact EDT give the same result, but the exact EDT does not slow down as the spread or scale grows. Anti-aliased EDT finds the edges to a fraction of a pixel from an anti-aliased glyph, so a scale of 1 or 2 is enough. Outline measures the exact distance to the glyph's curves, so it is more accurate than any scale and ignores it."));
 		return values;
 	}
 
 	@Override
 	public void setValues (Array<Value> values) {
+		int oldScale = scale;
+		String oldEngine = engine;
 		for (Value value : values) {
 			if ("Color".equals(value.getName())) {
 				color = (Color) value.getObject();
@@ -116,8 +237,10 @@ public class DistanceFieldEffect implements ConfigurableEffect {
 				scale = Math.max(1, (Integer) value.getObject());
 			} else if ("Spread".equals(value.getName())) {
 				spread = Math.max(0, (Float) value.getObject());
+			} else if ("Engine".equals(value.getName())) {
+				engine = (String) value.getObject();
 			}
 		}
-
+		if (scale != oldScale || !engine.equals(oldEngine)) rawDistances.clear();
 	}
 }
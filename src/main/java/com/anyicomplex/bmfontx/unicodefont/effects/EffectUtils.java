@@ -38,6 +38,7 @@
 package com.anyicomplex.bmfontx.unicodefont.effects;
 
 import com.anyicomplex.bmfontx.unicodefont.GlyphPage;
+import com.badlogic.gdx.utils.Array;
 
 import javax.swing.*;
 import java.awt.*;
@@ -49,14 +50,40 @@ import java.awt.image.BufferedImage;
  * @author Nathan Sweet
  * @modifier Yi An */
 public class EffectUtils {
-	 private static final BufferedImage scratchImage = new BufferedImage(
-			 GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE, BufferedImage.TYPE_INT_ARGB);
+	/** Each thread's images, one per size asked for, since glyphs may be rendered on several threads at once. */
+	static private final ThreadLocal<Array<BufferedImage>> scratchImages = new ThreadLocal<Array<BufferedImage>>() {
+		protected Array<BufferedImage> initialValue () {
+			return new Array<BufferedImage>(false, 4);
+		}
+	};
 
-	/** Returns an image that can be used by effects as a temp image. */
+	/** Returns a 256x256 image that can be used by effects as a temp image. Each thread gets its own. Glyphs can be larger than
+	 * this, up to {@link GlyphPage#MAX_GLYPH_SIZE}.
+	 * @deprecated Use {@link #getScratchImage(int, int)} with the size of the image the effect draws on. */
+	@Deprecated
 	static public BufferedImage getScratchImage () {
+		return getScratchImage(256, 256);
+	}
+
+	/** Returns a cleared image of the given size that can be used by effects as a temp image, usually as large as the image the
+	 * effect draws on. Each thread gets its own. */
+	static public BufferedImage getScratchImage (int width, int height) {
+		Array<BufferedImage> images = scratchImages.get();
+		BufferedImage scratchImage = null;
+		for (int i = 0; i < images.size; i++) {
+			BufferedImage image = images.get(i);
+			if (image.getWidth() == width && image.getHeight() == height) {
+				scratchImage = image;
+				break;
+			}
+		}
+		if (scratchImage == null) {
+			scratchImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			images.add(scratchImage);
+		}
 		Graphics2D g = (Graphics2D)scratchImage.getGraphics();
 		g.setComposite(AlphaComposite.Clear);
-		g.fillRect(0, 0, GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE);
+		g.fillRect(0, 0, width, height);
 		g.setComposite(AlphaComposite.SrcOver);
 		g.setColor(Color.white);
 		return scratchImage;
@@ -58,7 +58,7 @@ public class FilterEffect implements Effect {
 	}
 
 	public void draw (BufferedImage image, Graphics2D g, UnicodeFont unicodeFont, Glyph glyph) {
-		BufferedImage scratchImage = EffectUtils.getScratchImage();
+		BufferedImage scratchImage = EffectUtils.getScratchImage(image.getWidth(), image.getHeight());
 		filter.filter(image, scratchImage);
 		image.getGraphics().drawImage(scratchImage, 0, 0, null);
 	}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont.effects;
+
+import com.anyicomplex.bmfontx.distancefield.MultiChannelDistanceFieldGenerator;
+import com.anyicomplex.bmfontx.unicodefont.Glyph;
+import com.anyicomplex.bmfontx.unicodefont.GlyphPage;
+import com.anyicomplex.bmfontx.unicodefont.UnicodeFont;
+import com.badlogic.gdx.utils.Array;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/** A filter to create a multi-channel distance field. Sharp corners survive magnification much better than with a
+ * {@link DistanceFieldEffect}, at the cost of a shader that takes the median of the red, green and blue channels. The alpha
+ * channel holds a regular distance field.
+ * 
+ * @see MultiChannelDistanceFieldGenerator
+ * 
+ * @author Yi An */
+public class MultiChannelDistanceFieldEffect implements ConfigurableEffect {
+	private float spread = 4;
+	private float angleThreshold = 3;
+	private boolean errorCorrection = true;
+
+	@Override
+	public void draw (BufferedImage image, Graphics2D g, UnicodeFont unicodeFont, Glyph glyph) {
+		MultiChannelDistanceFieldGenerator generator = threadGenerator.get();
+		generator.setSpread(spread);
+		generator.setAngleThreshold(angleThreshold);
+		generator.setErrorCorrection(errorCorrection);
+		// On a render thread the other processors are busy with other glyphs.
+		generator.setParallelism(GlyphPage.isRenderThread() ? 1 : Runtime.getRuntime().availableProcessors());
+		BufferedImage distanceField = generator.generateDistanceField(glyph.getShape(), glyph.getWidth(), glyph.getHeight());
+
+		// Replace the pixels instead of drawing, blending would mix the channels with whatever is already there.
+		int width = Math.min(glyph.getWidth(), image.getWidth()), height = Math.min(glyph.getHeight(), image.getHeight());
+		int[] pixels = ((DataBufferInt)distanceField.getRaster().getDataBuffer()).getData();
+		image.setRGB(0, 0, width, height, pixels, 0, distanceField.getWidth());
+	}
+
+	/** Returns the spread in pixels, the distance range written to the font file is twice this. */
+	public float getSpread () {
+		return spread;
+	}
+
+	/** One generator per rendering thread, it keeps scratch state between glyphs. */
+	static private final ThreadLocal<MultiChannelDistanceFieldGenerator> threadGenerator = new ThreadLocal<MultiChannelDistanceFieldGenerator>() {
+		protected MultiChannelDistanceFieldGenerator initialValue () {
+			return new MultiChannelDistanceFieldGenerator();
+		}
+	};
+
+	@Override
+	public String toString () {
+		return "Multi-channel distance field";
+	}
+
+	@Override
+	public Array<Value> getValues () {
+		Array<Value> values = new Array<>();
+		values.add(EffectUtils.floatValue("Spread", spread, 1.0f, Float.MAX_VALUE,
+			"The maximum distance from edges where the effect of the distance field is seen. Set this to about half the width of lines in your output font."));
+		values.add(EffectUtils.floatValue("Angle threshold", angleThreshold, 0, (float)Math.PI,
+			"Edges meeting at an angle sharper than this, in radians, are treated as corners and stay sharp when the font is magnified."));
+		values.add(EffectUtils.booleanValue("Error correction", errorCorrection,
+			"Fixes texels that would produce artifacts where edges of different colors come close."));
+		return values;
+	}
+
+	@Override
+	public void setValues (Array<Value> values) {
+		for (Value value : values) {
+			if ("Spread".equals(value.getName())) {
+				spread = Math.max(1, (Float) value.getObject());
+			} else if ("Angle threshold".equals(value.getName())) {
+				angleThreshold = (Float) value.getObject();
+			} else if ("Error correction".equals(value.getName())) {
+				errorCorrection = (Boolean) value.getObject();
+			}
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont.effects;
+
+import java.awt.*;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/** Keeps the signed distances computed by a {@link DistanceFieldEffect} for each glyph, so that changing only its spread or color
+ * doesn't require computing them again. Glyphs are identified by their outline and everything else that affects the distances,
+ * so a cached entry is never used for a different glyph. The least recently used entries are dropped when the cache grows larger
+ * than its limit. Safe to use from several threads.
+ * @author Yi An */
+final class RawDistanceCache {
+	private final long maxBytes;
+	private long bytes;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+	/** @param maxBytes the approximate limit of the memory used by the cached distances */
+	RawDistanceCache (long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/** Returns the distances for the glyph if they were computed for at least the given spread, otherwise null. */
+	synchronized float[] get (Key key, float spread) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.spread < spread) return null;
+		return entry.signedDistances;
+	}
+
+	/** Stores the distances of a glyph, computed for the given spread. */
+	synchronized void put (Key key, float[] signedDistances, float spread) {
+		Entry entry = new Entry(signedDistances, spread, key.size() + signedDistances.length * 4L);
+		if (entry.bytes > maxBytes) return;
+		Entry old = entries.put(key, entry);
+		if (old != null) bytes -= old.bytes;
+		bytes += entry.bytes;
+		for (Iterator<Entry> iter = entries.values().iterator(); bytes > maxBytes && iter.hasNext();) {
+			bytes -= iter.next().bytes;
+			iter.remove();
+		}
+	}
+
+	/** Drops all entries. */
+	synchronized void clear () {
+		entries.clear();
+		bytes = 0;
+	}
+
+	static private class Entry {
+		final float[] signedDistances;
+		final float spread;
+		final long bytes;
+
+		Entry (float[] signedDistances, float spread, long bytes) {
+			this.signedDistances = signedDistances;
+			this.spread = spread;
+			this.bytes = bytes;
+		}
+	}
+
+	/** Identifies a glyph by its outline, size, and the settings of the effect that change its distances. */
+	static final class Key {
+		private final float[] outline;
+		private final int width, height, scale;
+		private final String engine;
+		private final int hashCode;
+
+		Key (Shape shape, int width, int height, int scale, String engine) {
+			this.width = width;
+			this.height = height;
+			this.scale = scale;
+			this.engine = engine;
+
+			float[] outline = new float[64];
+			int size = 0;
+			float[] coords = new float[6];
+			PathIterator iter = shape.getPathIterator(null);
+			outline[size++] = iter.getWindingRule();
+			for (; !iter.isDone(); iter.next()) {
+				int type = iter.currentSegment(coords);
+				if (size + 7 > outline.length) outline = Arrays.copyOf(outline, outline.length * 2);
+				outline[size++] = type;
+				for (int i = 0, n = coordCount(type); i < n; i++)
+					outline[size++] = coords[i];
+			}
+			this.outline = Arrays.copyOf(outline, size);
+
+			int hash = Arrays.hashCode(this.outline);
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+			hash = 31 * hash + scale;
+			hashCode = 31 * hash + engine.hashCode();
+		}
+
+		static private int coordCount (int type) {
+			switch (type) {
+			case PathIterator.SEG_MOVETO:
+			case PathIterator.SEG_LINETO:
+				return 2;
+			case PathIterator.SEG_QUADTO:
+				return 4;
+			case PathIterator.SEG_CUBICTO:
+				return 6;
+			default:
+				return 0;
+			}
+		}
+
+		/** Returns the approximate memory used by the key, in bytes. */
+		long size () {
+			return 64 + outline.length * 4L;
+		}
+
+		public boolean equals (Object object) {
+			if (this == object) return true;
+			if (!(object instanceof Key)) return false;
+			Key other = (Key)object;
+			return hashCode == other.hashCode && width == other.width && height == other.height && scale == other.scale
+				&& engine.equals(other.engine) && Arrays.equals(outline, other.outline);
+		}
+
+		public int hashCode () {
+			return hashCode;
+		}
+	}
+}
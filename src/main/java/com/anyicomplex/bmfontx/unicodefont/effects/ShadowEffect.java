@@ -55,7 +55,9 @@ public class ShadowEffect implements ConfigurableEffect {
 		g.fill(glyph.getShape());
 
 		// Also shadow the outline, if one exists.
-		for (Effect effect : unicodeFont.getEffects()) {
+		// Indexed, the array's iterator can't be used by several threads rendering glyphs at once.
+		for (int i = 0, n = unicodeFont.getEffects().size; i < n; i++) {
+			Effect effect = unicodeFont.getEffects().get(i);
 			if (effect instanceof OutlineEffect) {
 				Composite composite = g.getComposite();
 				g.setComposite(AlphaComposite.Src); // Prevent shadow and outline shadow alpha from combining.
@@ -69,7 +71,14 @@ public class ShadowEffect implements ConfigurableEffect {
 		}
 
 		g.dispose();
-		if (blurKernelSize > 1 && blurKernelSize < NUM_KERNELS && blurPasses > 0) blur(image);
+		if (getBlurReach() > 0) blur(image);
+	}
+
+	/** Returns how many pixels the blur can move the shadow's color away from where it was drawn, 0 if it isn't blurred. */
+	public int getBlurReach () {
+		if (blurKernelSize <= 1 || blurKernelSize >= NUM_KERNELS || blurPasses <= 0) return 0;
+		// Each pass blurs with a kernel of blurKernelSize pixels.
+		return blurPasses * (blurKernelSize - 1);
 	}
 
 	private void blur (BufferedImage image) {
@@ -79,7 +88,7 @@ public class ShadowEffect implements ConfigurableEffect {
 		RenderingHints hints = new RenderingHints(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
 		ConvolveOp gaussianOp1 = new ConvolveOp(gaussianBlur1, ConvolveOp.EDGE_NO_OP, hints);
 		ConvolveOp gaussianOp2 = new ConvolveOp(gaussianBlur2, ConvolveOp.EDGE_NO_OP, hints);
-		BufferedImage scratchImage = EffectUtils.getScratchImage();
+		BufferedImage scratchImage = EffectUtils.getScratchImage(image.getWidth(), image.getHeight());
 		for (int i = 0; i < blurPasses; i++) {
 			gaussianOp1.filter(image, scratchImage);
 			gaussianOp2.filter(scratchImage, image);
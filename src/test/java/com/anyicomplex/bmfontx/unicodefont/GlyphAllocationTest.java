@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import com.anyicomplex.bmfontx.unicodefont.effects.ColorEffect;
+import com.anyicomplex.bmfontx.unicodefont.effects.Effect;
+import com.anyicomplex.bmfontx.unicodefont.effects.OutlineEffect;
+import com.anyicomplex.bmfontx.unicodefont.effects.ShadowEffect;
+import com.badlogic.gdx.utils.Array;
+
+import java.awt.*;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/** Counts the bytes {@link GlyphPage#rasterizeGlyph} allocates per glyph once warmed up, with the thread allocation counter of
+ * {@link com.sun.management.ThreadMXBean}. Fails if a glyph drawn with an effect that draws nothing, with native rendering, or
+ * with a {@link ColorEffect} allocates anything. Outlines and shadows still allocate, so their bytes are only printed: each of
+ * these effects draws on its own {@link Graphics2D#create() copy} of the graphics, an {@link OutlineEffect} without a stroke set
+ * makes a new {@link BasicStroke} for every glyph, and a {@link ShadowEffect} makes a new {@link Color} and draws the glyph's
+ * outline moved, which Java2D iterates through a new {@link java.awt.geom.PathIterator}.
+ * <p>
+ * Run it with {@code gradlew glyphAllocationTest}. It throws an {@link AssertionError} if a check fails. Whether Java2D draws
+ * without allocating depends on the JDK, the platform's font rasterizer and the fonts installed, so {@code gradlew check}
+ * doesn't run it.
+ * @author Yi An */
+public class GlyphAllocationTest {
+	static private final String TEXT = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+	static private final int WARMUP_ROUNDS = 1000, MEASURED_ROUNDS = 1000;
+	/** A round is measured again this often before a path counts as allocating, so a one-off allocation like a cache filling
+	 * up isn't taken for garbage made per glyph. */
+	static private final int ATTEMPTS = 3;
+
+	public static void main (String[] args) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) throw new AssertionError("Thread allocation counting isn't supported.");
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		expectNoGarbage(threads, "no-op effect", createFont(UnicodeFont.RenderType.Java, new Effect() {
+			public void draw (BufferedImage image, Graphics2D g, UnicodeFont unicodeFont, Glyph glyph) {
+			}
+		}));
+		expectNoGarbage(threads, "native", createFont(UnicodeFont.RenderType.Native, new ColorEffect(Color.white)));
+		expectNoGarbage(threads, "color", createFont(UnicodeFont.RenderType.Java, new ColorEffect(Color.white)));
+
+		print(threads, "outline+shadow", createFont(UnicodeFont.RenderType.Java, new ShadowEffect(Color.black, 2, 2, 0.5f),
+			new OutlineEffect(2, Color.red), new ColorEffect(Color.white)));
+	}
+
+	static private UnicodeFont createFont (UnicodeFont.RenderType renderType, Effect... effects) {
+		UnicodeFont unicodeFont = new UnicodeFont(new Font("Dialog", Font.PLAIN, 12));
+		unicodeFont.setRenderType(renderType);
+		for (Effect effect : effects)
+			unicodeFont.getEffects().add(effect);
+		return unicodeFont;
+	}
+
+	static private Array<Glyph> createGlyphs (UnicodeFont unicodeFont) {
+		Array<Glyph> glyphs = new Array<>(TEXT.length());
+		for (int i = 0; i < TEXT.length(); i++) {
+			char[] chars = {TEXT.charAt(i)};
+			GlyphVector vector = unicodeFont.getFont().layoutGlyphVector(GlyphPage.renderContext, chars, 0, 1,
+				Font.LAYOUT_LEFT_TO_RIGHT);
+			Rectangle bounds = vector.getGlyphPixelBounds(0, GlyphPage.renderContext, 0, 0);
+			glyphs.add(unicodeFont.getGlyph(vector.getGlyphCode(0), chars[0], bounds, vector, 0));
+		}
+		return glyphs;
+	}
+
+	static private void expectNoGarbage (com.sun.management.ThreadMXBean threads, String name, UnicodeFont unicodeFont) {
+		Array<Glyph> glyphs = createGlyphs(unicodeFont);
+		render(unicodeFont, glyphs, WARMUP_ROUNDS);
+		double bytes = 0;
+		for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+			bytes = measure(threads, unicodeFont, glyphs);
+			if (bytes == 0) break;
+		}
+		System.out.printf("%-15s %7.1f bytes/glyph%n", name, bytes);
+		if (bytes != 0) throw new AssertionError(name + " allocates " + bytes + " bytes per glyph, expected none.");
+	}
+
+	static private void print (com.sun.management.ThreadMXBean threads, String name, UnicodeFont unicodeFont) {
+		Array<Glyph> glyphs = createGlyphs(unicodeFont);
+		render(unicodeFont, glyphs, WARMUP_ROUNDS);
+		System.out.printf("%-15s %7.1f bytes/glyph (not checked)%n", name, measure(threads, unicodeFont, glyphs));
+	}
+
+	/** @return The bytes allocated per glyph rendered. */
+	static private double measure (com.sun.management.ThreadMXBean threads, UnicodeFont unicodeFont, Array<Glyph> glyphs) {
+		long id = Thread.currentThread().getId();
+		long start = threads.getThreadAllocatedBytes(id);
+		render(unicodeFont, glyphs, MEASURED_ROUNDS);
+		long bytes = threads.getThreadAllocatedBytes(id) - start;
+		return bytes / (double)(MEASURED_ROUNDS * glyphs.size);
+	}
+
+	static private void render (UnicodeFont unicodeFont, Array<Glyph> glyphs, int rounds) {
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0, n = glyphs.size; i < n; i++) {
+				Glyph glyph = glyphs.get(i);
+				int width = Math.min(GlyphPage.MAX_GLYPH_SIZE, glyph.getWidth());
+				int height = Math.min(GlyphPage.MAX_GLYPH_SIZE, glyph.getHeight());
+				GlyphPage.rasterizeGlyph(unicodeFont, GlyphPage.getScratch(unicodeFont, width, height), glyph, width, height);
+			}
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 Yi An
+ *
+ *     This program is based on the open source of Hiero v5 <https://github.com/libgdx/libgdx/wiki/Hiero>,
+ *     powered by Java & libGDX.
+ *     This project also using FlatLaf <https://github.com/JFormDesigner/FlatLaf>.
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * libGDX Copyright:
+ *
+ * Copyright 2011 See AUTHORS file.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+
+package com.anyicomplex.bmfontx.unicodefont;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+/** Measures {@link GlyphIndex#digest} against the SHA-256 digest glyph images used to be deduplicated by, on images of small,
+ * medium and large glyphs whose pixels are mostly transparent. Also checks the digest against the xxHash64 reference vectors.
+ * Run with {@code main}, no arguments.
+ * @author Yi An */
+public class GlyphDigestBenchmark {
+	static private final int ITERATIONS = 20000;
+	static private final int ROUNDS = 3;
+
+	public static void main (String[] args) throws NoSuchAlgorithmException {
+		checkVector("", 0xef46db3751d8e999L);
+		checkVector("a", 0xd24ec4f1a98c6e5bL);
+		checkVector("abc", 0x44bc2cf5ad770999L);
+		checkVector("Nobody inspects the spammish repetition", 0xfbcea83c8a378bf1L);
+
+		Random random = new Random(1);
+		long sink = 0;
+		for (int[] size : new int[][] {{16, 20}, {40, 48}, {96, 110}}) {
+			ByteBuffer pixels = glyphPixels(size[0] * size[1], random);
+			// The last round is measured, the others warm up.
+			for (int round = 0; round < ROUNDS; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < ITERATIONS; i++)
+					sink += sha256(pixels).length();
+				long sha256Time = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int i = 0; i < ITERATIONS; i++)
+					sink += GlyphIndex.digest(pixels);
+				long xxHashTime = System.nanoTime() - start;
+				if (round == ROUNDS - 1) {
+					System.out.printf("%3dx%-3d px  SHA-256+BigInteger+hex %6.2f us  xxHash64 %5.2f us  %3.0fx%n", size[0], size[1],
+						sha256Time / 1e3 / ITERATIONS, xxHashTime / 1e3 / ITERATIONS, (double)sha256Time / xxHashTime);
+				}
+			}
+		}
+		// Keeps the digests from being optimized away.
+		if (sink == 42) System.out.println();
+	}
+
+	/** Returns the digest glyph images were deduplicated by before {@link GlyphIndex#digest}. */
+	static private String sha256 (ByteBuffer pixels) throws NoSuchAlgorithmException {
+		MessageDigest md = MessageDigest.getInstance("SHA-256");
+		md.update(pixels.duplicate());
+		return new BigInteger(1, md.digest()).toString(16);
+	}
+
+	/** Returns a direct buffer of RGBA pixels, about one in four of them visible, like a rendered glyph. */
+	static private ByteBuffer glyphPixels (int count, Random random) {
+		ByteBuffer pixels = ByteBuffer.allocateDirect(count * 4).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < count * 4; i++)
+			pixels.put((byte)(random.nextInt(4) == 0 ? random.nextInt(256) : 0));
+		pixels.flip();
+		return pixels;
+	}
+
+	static private void checkVector (String text, long expected) {
+		ByteBuffer bytes = ByteBuffer.allocateDirect(text.length()).order(ByteOrder.LITTLE_ENDIAN);
+		bytes.put(text.getBytes());
+		bytes.flip();
+		long digest = GlyphIndex.digest(bytes);
+		if (digest != expected) {
+			throw new AssertionError(
+				"xxHash64 of \"" + text + "\" is " + Long.toHexString(digest) + ", expected " + Long.toHexString(expected));
+		}
+	}
+}